@@ -0,0 +1,67 @@
+package io.crunch.ai.function.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, realistic mixes of candidate addresses for the benchmarks.
+ * <p>
+ * The candidates resemble what the statistic search returns for a person: the same address with typos,
+ * casing or whitespace differences, other house numbers, neighbouring zip codes, other streets and cities,
+ * and exact duplicates.
+ */
+public final class AddressMix {
+
+    private static final String[] CITIES = {"Berlin", "Hamburg", "München", "Köln", "Frankfurt am Main", "Stuttgart", "Düsseldorf", "Leipzig"};
+
+    private static final String[] STREETS = {"Invalidenstraße", "Chausseestraße", "Torstraße", "Prenzlauer Allee", "Schönhauser Allee",
+            "Friedrichstraße", "Hauptstraße", "Am Großen Wannsee", "Kurfürstendamm", "Karl-Marx-Allee"};
+
+    private AddressMix() {
+    }
+
+    public static Address original() {
+        return new Address("Germany", "Berlin", "10115", "Invalidenstraße", "44");
+    }
+
+    /**
+     * Returns {@code count} candidates derived from {@code original}.
+     *
+     * @param original the address the candidates are derived from.
+     * @param count    the number of candidates.
+     * @param seed     the random seed; equal seeds give equal mixes.
+     * @return the candidates.
+     */
+    public static List<Address> candidates(Address original, int count, long seed) {
+        var random = new Random(seed);
+        var candidates = new ArrayList<Address>(count);
+        for (int i = 0; i < count; i++) {
+            candidates.add(switch (random.nextInt(7)) {
+                case 0 -> original;
+                case 1 -> new Address(original.country(), original.city(), original.zipCode(), typo(original.street(), random), original.houseNumber());
+                case 2 -> new Address(original.country().toUpperCase(), " " + original.city().toLowerCase(), original.zipCode(),
+                        original.street().toLowerCase() + " ", original.houseNumber());
+                case 3 -> new Address(original.country(), original.city(), original.zipCode(), original.street(), Integer.toString(1 + random.nextInt(250)));
+                case 4 -> new Address(original.country(), original.city(), Integer.toString(10115 + random.nextInt(900)), original.street(), original.houseNumber());
+                case 5 -> new Address(original.country(), original.city(), original.zipCode(), pick(STREETS, random), Integer.toString(1 + random.nextInt(250)));
+                default -> new Address(original.country(), pick(CITIES, random), Integer.toString(10000 + random.nextInt(90000)),
+                        pick(STREETS, random), Integer.toString(1 + random.nextInt(250)));
+            });
+        }
+        return candidates;
+    }
+
+    private static String typo(String value, Random random) {
+        var chars = value.toCharArray();
+        int i = random.nextInt(chars.length - 1);
+        var swapped = chars[i];
+        chars[i] = chars[i + 1];
+        chars[i + 1] = swapped;
+        return new String(chars);
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
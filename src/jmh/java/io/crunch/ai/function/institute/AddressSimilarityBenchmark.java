@@ -0,0 +1,85 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.AddressMix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Throughput of the {@link JaroWinklerScorer} and {@link SimilarityDistanceCalculator} hot paths on a realistic
+ * {@link AddressMix}.
+ * <ul>
+ *   <li>{@code normalize} — normalization of one candidate address.</li>
+ *   <li>{@code jaroWinklerSimilarity} — normalization and scoring of one (original, candidate) pair.</li>
+ *   <li>{@code jaroWinklerSimilarities} — sequential scoring of all {@code candidates} against the original in one batch.</li>
+ *   <li>{@code addressSimilarities} — field-by-field comparison of all {@code candidates} with the original.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="AddressSimilarity -prof gc"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.jboss.logging.provider=jdk")
+public class AddressSimilarityBenchmark {
+
+    @Param({"4", "64", "1024"})
+    public int candidates;
+
+    private final SimilarityDistanceCalculator calculator = new SimilarityDistanceCalculator(0.05, 0.2, 0.25, 0.35, 0.15);
+
+    private Address original;
+
+    private List<Address> mix;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // The calculator logs every call at INFO level
+        Logger.getLogger("").setLevel(Level.WARNING);
+        original = AddressMix.original();
+        mix = AddressMix.candidates(original, candidates, 42);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return JaroWinklerScorer.normalize(nextCandidate());
+    }
+
+    @Benchmark
+    public double jaroWinklerSimilarity() {
+        return JaroWinklerScorer.similarity(original, nextCandidate());
+    }
+
+    @Benchmark
+    public double[] jaroWinklerSimilarities() {
+        return JaroWinklerScorer.similarities(original, mix, false);
+    }
+
+    @Benchmark
+    public List<AddressSimilarity> addressSimilarities() {
+        return calculator.addressSimilarities(original, mix);
+    }
+
+    private Address nextCandidate() {
+        var candidate = mix.get(next);
+        next = next + 1 == mix.size() ? 0 : next + 1;
+        return candidate;
+    }
+}
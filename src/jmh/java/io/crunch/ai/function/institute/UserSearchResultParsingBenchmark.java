@@ -0,0 +1,91 @@
+package io.crunch.ai.function.institute;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-response cost of turning the assistant's JSON into a {@link UserSearchResult}.
+ * <ul>
+ *   <li>{@code perRequestMappers} — the former behavior: the guardrail and the pipeline each build a new
+ *       {@link ObjectMapper} and parse the response.</li>
+ *   <li>{@code sharedReaderParsedOnce} — the guardrail parses with the shared {@link UserSearchResultReader}
+ *       and hands the result over to the pipeline.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="UserSearchResultParsing -prof gc"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchResultParsingBenchmark {
+
+    private static final String PERSON = """
+            {"firstName":"Peter","lastName":"Weber","birthDate":"1982-04-08"}""";
+
+    private static final String NONE_MATCH = """
+            {"type":"NONEMATCH","person":%s}""".formatted(PERSON);
+
+    private static final String EXACT_MATCH = """
+            {"type":"EXACTMATCH","user":{"person":%s,
+             "address":{"country":"Germany","city":"Berlin","zipCode":"10115","street":"Invalidenstraße","houseNumber":"44"},
+             "score":1.0,"explanation":"Exact match found","externalId":"ext-1"}}""".formatted(PERSON);
+
+    private static final String SIMILAR_MATCH = """
+            {"type":"SIMILARMATCH","users":[%s,%s,%s,%s]}""".formatted(
+            candidate("10115", "Invalidenstraße", "44", 0.97, "ext-1"),
+            candidate("10117", "Chausseestraße", "15", 0.81, "ext-2"),
+            candidate("10119", "Torstraße", "3", 0.74, "ext-3"),
+            candidate("10405", "Prenzlauer Allee", "201", 0.62, "ext-4"));
+
+    @Param({"NONEMATCH", "EXACTMATCH", "SIMILARMATCH"})
+    public String type;
+
+    private String json;
+
+    private UserSearchResultReader resultReader;
+
+    @Setup
+    public void setUp() {
+        json = switch (type) {
+            case "NONEMATCH" -> NONE_MATCH;
+            case "EXACTMATCH" -> EXACT_MATCH;
+            case "SIMILARMATCH" -> SIMILAR_MATCH;
+            default -> throw new IllegalArgumentException("Unknown type: " + type);
+        };
+        resultReader = new UserSearchResultReader();
+    }
+
+    @Benchmark
+    public UserSearchResult perRequestMappers() throws JsonProcessingException {
+        new ObjectMapper().readValue(json, UserSearchResult.class);
+        return new ObjectMapper().readValue(json, UserSearchResult.class);
+    }
+
+    @Benchmark
+    public UserSearchResult sharedReaderParsedOnce() throws JsonProcessingException {
+        return resultReader.read(json);
+    }
+
+    private static String candidate(String zipCode, String street, String houseNumber, double score, String externalId) {
+        return """
+                {"person":%s,"address":{"country":"Germany","city":"Berlin","zipCode":"%s","street":"%s","houseNumber":"%s"},\
+                "similarityScore":%s,"explanation":"Similar address","externalId":"%s"}"""
+                .formatted(PERSON, zipCode, street, houseNumber, score, externalId);
+    }
+}
@@ -0,0 +1,101 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of fuzzy candidate retrieval from the {@link PersonTrigramIndex} on 100k and 1M persons, with birth dates
+ * spread over 80 years and names drawn from common German first and last names.
+ * <ul>
+ *   <li>{@code searchNearMiss} — a name with one changed letter, as in "Meier" for "Meyer".</li>
+ *   <li>{@code searchUnknown} — a name that matches no person.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="PersonTrigramIndex -prof gc"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PersonTrigramIndexBenchmark {
+
+    private static final List<String> FIRST_NAMES = List.of("Anna", "Clara", "Julia", "Laura", "Lena", "Marie", "Sophie", "Hannah",
+            "Jonas", "Lukas", "Markus", "Peter", "Thomas", "Stefan", "Michael", "Felix");
+
+    private static final List<String> LAST_NAMES = List.of("Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer", "Wagner",
+            "Becker", "Schulz", "Hoffmann", "Koch", "Richter", "Klein", "Wolf", "Neumann", "Keller");
+
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1940, 1, 1);
+
+    private static final int BIRTH_DATES = 80 * 365;
+
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    public int persons;
+
+    private PersonTrigramIndex index;
+
+    private Person[] nearMisses;
+
+    private Person[] unknowns;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        index = new PersonTrigramIndex(true, 0.7, 10, new SimpleMeterRegistry());
+        for (int id = 0; id < persons; id++) {
+            index.index(id, randomPerson(random));
+        }
+        nearMisses = new Person[QUERIES];
+        unknowns = new Person[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            var person = randomPerson(random);
+            nearMisses[i] = new Person(person.firstName(), typo(person.lastName(), random), person.birthDate());
+            unknowns[i] = new Person("Xaver", "Quast", person.birthDate());
+        }
+    }
+
+    @Benchmark
+    public List<PersonTrigramIndex.Candidate> searchNearMiss() {
+        var person = nearMisses[next++ & (QUERIES - 1)];
+        return index.search(person.firstName(), person.lastName(), person.birthDate());
+    }
+
+    @Benchmark
+    public List<PersonTrigramIndex.Candidate> searchUnknown() {
+        var person = unknowns[next++ & (QUERIES - 1)];
+        return index.search(person.firstName(), person.lastName(), person.birthDate());
+    }
+
+    private static Person randomPerson(Random random) {
+        return new Person(FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())),
+                LAST_NAMES.get(random.nextInt(LAST_NAMES.size())),
+                FIRST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATES)).toString());
+    }
+
+    private static String typo(String name, Random random) {
+        var chars = name.toCharArray();
+        chars[1 + random.nextInt(chars.length - 1)] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+}
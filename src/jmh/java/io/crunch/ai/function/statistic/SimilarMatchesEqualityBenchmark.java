@@ -0,0 +1,83 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.AddressMix;
+import io.crunch.ai.function.common.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of the set-like equality of {@link SimilarMatchesResult} and the hashing of its {@link MatchUser}s
+ * on large candidate lists.
+ * <ul>
+ *   <li>{@code equalsShuffled} — equal results whose users are in a different order.</li>
+ *   <li>{@code equalsLastDiffers} — results that differ only in the last user.</li>
+ *   <li>{@code hashCodeOfResult} — hash of a whole result.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="SimilarMatchesEquality -prof gc"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarMatchesEqualityBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int users;
+
+    private SimilarMatchesResult result;
+
+    private SimilarMatchesResult shuffled;
+
+    private SimilarMatchesResult lastDiffers;
+
+    @Setup
+    public void setUp() {
+        var person = new Person("Peter", "Weber", "1982-04-08");
+        var addresses = AddressMix.candidates(AddressMix.original(), users, 42);
+        var matchUsers = IntStream.range(0, users)
+                .mapToObj(i -> new MatchUser(person, addresses.get(i), 0.5, "Similar address", "ext-" + i))
+                .toList();
+        result = new SimilarMatchesResult(matchUsers);
+
+        var reordered = new ArrayList<>(matchUsers);
+        Collections.shuffle(reordered, new Random(42));
+        shuffled = new SimilarMatchesResult(reordered);
+
+        var changed = new ArrayList<>(matchUsers);
+        var last = changed.getLast();
+        changed.set(changed.size() - 1, new MatchUser(last.person(), last.address(), last.score(), last.explanation(), "ext-other"));
+        lastDiffers = new SimilarMatchesResult(changed);
+    }
+
+    @Benchmark
+    public boolean equalsShuffled() {
+        return result.equals(shuffled);
+    }
+
+    @Benchmark
+    public boolean equalsLastDiffers() {
+        return result.equals(lastDiffers);
+    }
+
+    @Benchmark
+    public int hashCodeOfResult() {
+        return result.hashCode();
+    }
+}
@@ -0,0 +1,140 @@
+package io.crunch.ai.function.statistic;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@code type} id handling of {@link UserSearchResult}, comparing the precomputed
+ * {@link UserSearchResultTypeIdResolver} with the former resolver that reflected over the permitted subclasses
+ * on every call ({@link ReflectiveTypeIdResolver}, installed through a mix-in).
+ * <ul>
+ *   <li>{@code idFromValue*} — the resolver alone, as used on every serialization.</li>
+ *   <li>{@code roundTrip*} — serialization and deserialization of a result with a shared reader and writer,
+ *       as in bulk searches.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="UserSearchResultTypeId"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchResultTypeIdBenchmark {
+
+    /**
+     * Copy of the resolver before the id-to-type mapping was precomputed.
+     */
+    public static class ReflectiveTypeIdResolver extends TypeIdResolverBase {
+
+        @Override
+        public String idFromValue(Object value) {
+            var ann = value.getClass().getAnnotation(UserSearchResultSubType.class);
+            return ann != null ? ann.value() : null;
+        }
+
+        @Override
+        public String idFromValueAndType(Object value, Class<?> suggestedType) {
+            return idFromValue(value);
+        }
+
+        @Override
+        public JavaType typeFromId(DatabindContext context, String id) {
+            for (Class<?> subtype : UserSearchResult.class.getPermittedSubclasses()) {
+                var ann = subtype.getAnnotation(UserSearchResultSubType.class);
+                if (ann != null && ann.value().equals(id)) {
+                    return context.constructType(subtype);
+                }
+            }
+            throw new IllegalArgumentException("Unknown type id: " + id);
+        }
+
+        @Override
+        public JsonTypeInfo.Id getMechanism() {
+            return JsonTypeInfo.Id.CUSTOM;
+        }
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CUSTOM, include = JsonTypeInfo.As.PROPERTY, property = "type")
+    @JsonTypeIdResolver(ReflectiveTypeIdResolver.class)
+    interface ReflectiveTypeIdMixIn { }
+
+    @Param({"NONEMATCH", "EXACTMATCH", "SIMILARMATCH"})
+    public String type;
+
+    private UserSearchResult value;
+
+    private final UserSearchResultTypeIdResolver precomputed = new UserSearchResultTypeIdResolver();
+
+    private final ReflectiveTypeIdResolver reflective = new ReflectiveTypeIdResolver();
+
+    private ObjectReader precomputedReader;
+
+    private ObjectWriter precomputedWriter;
+
+    private ObjectReader reflectiveReader;
+
+    private ObjectWriter reflectiveWriter;
+
+    @Setup
+    public void setUp() {
+        var person = new Person("Peter", "Weber", "1982-04-08");
+        var user = new MatchUser(person, new Address("Germany", "Berlin", "10115", "Invalidenstraße", "44"), 0.97, "Similar address", "ext-1");
+        var other = new MatchUser(person, new Address("Germany", "Berlin", "10117", "Chausseestraße", "15"), 0.81, "Similar address", "ext-2");
+        value = switch (type) {
+            case "NONEMATCH" -> new NoMatchResult(person);
+            case "EXACTMATCH" -> new ExactMatchResult(user);
+            case "SIMILARMATCH" -> new SimilarMatchesResult(List.of(user, other));
+            default -> throw new IllegalArgumentException("Unknown type: " + type);
+        };
+        var mapper = new ObjectMapper();
+        precomputedReader = mapper.readerFor(UserSearchResult.class);
+        precomputedWriter = mapper.writerFor(UserSearchResult.class);
+        var reflectiveMapper = new ObjectMapper().addMixIn(UserSearchResult.class, ReflectiveTypeIdMixIn.class);
+        reflectiveReader = reflectiveMapper.readerFor(UserSearchResult.class);
+        reflectiveWriter = reflectiveMapper.writerFor(UserSearchResult.class);
+    }
+
+    @Benchmark
+    public String idFromValuePrecomputed() {
+        return precomputed.idFromValue(value);
+    }
+
+    @Benchmark
+    public String idFromValueReflective() {
+        return reflective.idFromValue(value);
+    }
+
+    @Benchmark
+    public UserSearchResult roundTripPrecomputed() throws JsonProcessingException {
+        return precomputedReader.readValue(precomputedWriter.writeValueAsString(value));
+    }
+
+    @Benchmark
+    public UserSearchResult roundTripReflective() throws JsonProcessingException {
+        return reflectiveReader.readValue(reflectiveWriter.writeValueAsString(value));
+    }
+}
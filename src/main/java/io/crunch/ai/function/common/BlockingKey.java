@@ -0,0 +1,71 @@
+package io.crunch.ai.function.common;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import org.apache.commons.codec.language.ColognePhonetic;
+
+/**
+ * Blocking key of a {@link Person}: the Cologne phonetic codes of both names and the birth year.
+ * <p>
+ * Persons sharing a blocking key sound alike and are born in the same year (e.g. "Thomas Meier" and "Tomas Meyer"),
+ * so candidate searches only compare a query with the persons of its block instead of with every person.
+ * Cologne phonetics is tuned for German names, which make up most of our data. The columns are derived data:
+ * entities embedding them recompute them from their {@link Person} before every insert and update.
+ *
+ * @param firstName the Cologne phonetic code of the first name.
+ * @param lastName  the Cologne phonetic code of the last name.
+ * @param birthYear the birth year, or {@code null} if the birth date does not start with a four-digit year.
+ */
+@Embeddable
+public record BlockingKey(
+        @Column(name = "first_name_phonetic")
+        String firstName,
+
+        @Column(name = "last_name_phonetic")
+        String lastName,
+
+        @Column(name = "birth_year")
+        Integer birthYear
+) {
+
+    private static final ColognePhonetic COLOGNE_PHONETIC = new ColognePhonetic();
+
+    /**
+     * Computes the blocking key of a person.
+     *
+     * @param person the person, may be {@code null}.
+     * @return the blocking key, or {@code null} if the person is {@code null}.
+     */
+    public static BlockingKey of(Person person) {
+        if (person == null) {
+            return null;
+        }
+        return new BlockingKey(phonetic(person.firstName()), phonetic(person.lastName()), birthYear(person.birthDate()));
+    }
+
+    private static String phonetic(String name) {
+        return name == null ? "" : COLOGNE_PHONETIC.colognePhonetic(name.trim());
+    }
+
+    /**
+     * Returns the birth year of a birth date, as stored in the blocking key.
+     *
+     * @param birthDate the birth date, may be {@code null}.
+     * @return the year, or {@code null} if the birth date does not start with a four-digit year.
+     */
+    public static Integer birthYear(String birthDate) {
+        if (birthDate == null) {
+            return null;
+        }
+        var trimmed = birthDate.trim();
+        if (trimmed.length() < 4) {
+            return null;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (!Character.isDigit(trimmed.charAt(i))) {
+                return null;
+            }
+        }
+        return Integer.parseInt(trimmed, 0, 4, 10);
+    }
+}
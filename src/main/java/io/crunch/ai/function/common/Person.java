@@ -5,6 +5,8 @@ import dev.langchain4j.model.output.structured.Description;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 
+import java.util.Locale;
+
 /**
  * Represents immutable personal information of a user, including
  * first name, last name, and birth date.
@@ -77,4 +79,16 @@ public record Person(
         @Description("The user's birth date")
         @JsonProperty(required = true)
         String birthDate
-) { }
+) {
+
+    /**
+     * Trims and lower-cases a person field with {@link Locale#ROOT} rules, for comparisons that ignore case and
+     * surrounding whitespace.
+     *
+     * @param value the value, may be {@code null}.
+     * @return the normalized value, or {@code null} if the value is {@code null}.
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
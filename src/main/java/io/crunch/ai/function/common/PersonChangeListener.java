@@ -0,0 +1,34 @@
+package io.crunch.ai.function.common;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that publishes every write of a user entity as a {@link PersonChanged} CDI event.
+ * <p>
+ * Register it with {@code @EntityListeners(PersonChangeListener.class)} on the entities whose changes
+ * must be visible to in-memory consumers.
+ */
+public class PersonChangeListener {
+
+    @PostPersist
+    void created(Object entity) {
+        fire(new PersonChanged(entity, PersonChanged.Type.CREATED));
+    }
+
+    @PostUpdate
+    void updated(Object entity) {
+        fire(new PersonChanged(entity, PersonChanged.Type.UPDATED));
+    }
+
+    @PostRemove
+    void deleted(Object entity) {
+        fire(new PersonChanged(entity, PersonChanged.Type.DELETED));
+    }
+
+    private void fire(PersonChanged event) {
+        Arc.container().beanManager().getEvent().fire(event);
+    }
+}
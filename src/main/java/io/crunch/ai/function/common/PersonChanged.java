@@ -0,0 +1,19 @@
+package io.crunch.ai.function.common;
+
+/**
+ * CDI event fired when an entity holding a {@link Person} has been inserted, updated, or deleted.
+ * <p>
+ * Observers keeping derived data of users (caches, in-memory indexes) use it to stay in sync with the database.
+ * Observe it with {@code during = TransactionPhase.AFTER_SUCCESS} to react only to committed changes.
+ *
+ * @param entity the changed entity, for example a {@code StatisticUser} or an {@code InstituteUser}.
+ * @param type   the kind of change.
+ */
+public record PersonChanged(Object entity, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,498 @@
+package io.crunch.ai.function.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact in-memory index of user rows, keyed by the exact {@link Person} (first name, last name, birth date).
+ *
+ * <h2>Encoding</h2>
+ * Every field value is interned into a dictionary and stored as its {@code int} code, so a name, city, or street
+ * repeated across many rows is held once. The rows themselves are primitive arrays: {@value #FIELDS} codes per row
+ * in one {@code int[]}, and the row ids in a {@code long[]}. Rows are decoded into {@link Person} and
+ * {@link Address} records only when they are returned.
+ *
+ * <h2>Hash Tables</h2>
+ * Two open-addressing tables with linear probing and backward-shift deletion map the person key (the codes of its
+ * three fields) to the first row of that person, and the row id to its row; rows of the same person are chained in
+ * insertion order. Removed rows are reused by later inserts, but dictionary values are never removed.
+ * <p>
+ * The index is thread-safe; lookups share a read lock and writes take the write lock.
+ * {@link #footprintBytes()} estimates its retained heap.
+ */
+public final class PersonDictionaryIndex {
+
+    /**
+     * Maps a decoded row to a result.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+
+        T map(long id, String externalId, Person person, Address address);
+    }
+
+    private static final int FIRST_NAME = 0;
+
+    private static final int LAST_NAME = 1;
+
+    private static final int BIRTH_DATE = 2;
+
+    private static final int EXTERNAL_ID = 3;
+
+    private static final int COUNTRY = 4;
+
+    private static final int CITY = 5;
+
+    private static final int ZIP_CODE = 6;
+
+    private static final int STREET = 7;
+
+    private static final int HOUSE_NUMBER = 8;
+
+    private static final int FIELDS = 9;
+
+    /**
+     * Code of {@code null} values, in rows and in hash table slots.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Code of looked-up values that are not in the dictionary.
+     */
+    private static final int MISSING = -2;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Dictionary dictionary = new Dictionary();
+
+    private int[] fields = new int[INITIAL_CAPACITY * FIELDS];
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    /**
+     * Next row of the same person, or of the free list for removed rows.
+     */
+    private int[] next = new int[INITIAL_CAPACITY];
+
+    private int rows;
+
+    private int size;
+
+    private int freeRow = NONE;
+
+    private int[] keySlots = emptySlots(INITIAL_CAPACITY * 2);
+
+    private int keys;
+
+    private long[] idSlotIds = new long[INITIAL_CAPACITY * 2];
+
+    private int[] idSlotRows = emptySlots(INITIAL_CAPACITY * 2);
+
+    /**
+     * Inserts a row, replacing the row with the same id.
+     *
+     * @param id         the id of the user.
+     * @param externalId the external id, may be {@code null}.
+     * @param person     the person.
+     * @param address    the address, may be {@code null}.
+     */
+    public void put(long id, String externalId, Person person, Address address) {
+        lock.writeLock().lock();
+        try {
+            removeRow(id);
+            int row = allocateRow();
+            int base = row * FIELDS;
+            ids[row] = id;
+            fields[base + FIRST_NAME] = dictionary.intern(person.firstName());
+            fields[base + LAST_NAME] = dictionary.intern(person.lastName());
+            fields[base + BIRTH_DATE] = dictionary.intern(person.birthDate());
+            fields[base + EXTERNAL_ID] = dictionary.intern(externalId);
+            fields[base + COUNTRY] = dictionary.intern(address == null ? null : address.country());
+            fields[base + CITY] = dictionary.intern(address == null ? null : address.city());
+            fields[base + ZIP_CODE] = dictionary.intern(address == null ? null : address.zipCode());
+            fields[base + STREET] = dictionary.intern(address == null ? null : address.street());
+            fields[base + HOUSE_NUMBER] = dictionary.intern(address == null ? null : address.houseNumber());
+            linkKey(row);
+            putId(id, row);
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the row with the given id, if any.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeRow(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all rows of a person.
+     *
+     * @param firstName the exact first name.
+     * @param lastName  the exact last name.
+     * @param birthDate the exact birth date.
+     * @param mapper    maps the decoded rows.
+     * @return the mapped rows, in insertion order.
+     */
+    public <T> List<T> find(String firstName, String lastName, String birthDate, RowMapper<T> mapper) {
+        lock.readLock().lock();
+        try {
+            int first = dictionary.code(firstName);
+            int last = dictionary.code(lastName);
+            int birth = dictionary.code(birthDate);
+            if (first == MISSING || last == MISSING || birth == MISSING) {
+                return List.of();
+            }
+            var hits = new ArrayList<T>(1);
+            for (int row = keySlots[keySlot(first, last, birth)]; row != NONE; row = next[row]) {
+                hits.add(decode(row, mapper));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the rows with the given ids; unknown ids are skipped.
+     *
+     * @param ids    the ids.
+     * @param mapper maps the decoded rows.
+     * @return the mapped rows, in the order of the ids.
+     */
+    public <T> List<T> findByIds(Collection<Long> ids, RowMapper<T> mapper) {
+        lock.readLock().lock();
+        try {
+            var hits = new ArrayList<T>(ids.size());
+            for (var id : ids) {
+                int row = idSlotRows[idSlot(id)];
+                if (row != NONE) {
+                    hits.add(decode(row, mapper));
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of rows.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct field values in the dictionary.
+     */
+    public int dictionarySize() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates the retained heap of the index: its arrays, including unused capacity, and the dictionary strings,
+     * assuming compressed references and compact strings.
+     *
+     * @return the estimated size in bytes.
+     */
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            return arrayBytes(fields.length, Integer.BYTES) + arrayBytes(ids.length, Long.BYTES) + arrayBytes(next.length, Integer.BYTES)
+                    + arrayBytes(keySlots.length, Integer.BYTES)
+                    + arrayBytes(idSlotIds.length, Long.BYTES) + arrayBytes(idSlotRows.length, Integer.BYTES)
+                    + dictionary.footprintBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T decode(int row, RowMapper<T> mapper) {
+        int base = row * FIELDS;
+        var person = new Person(dictionary.value(fields[base + FIRST_NAME]), dictionary.value(fields[base + LAST_NAME]),
+                dictionary.value(fields[base + BIRTH_DATE]));
+        var address = new Address(dictionary.value(fields[base + COUNTRY]), dictionary.value(fields[base + CITY]),
+                dictionary.value(fields[base + ZIP_CODE]), dictionary.value(fields[base + STREET]), dictionary.value(fields[base + HOUSE_NUMBER]));
+        // Like Hibernate, an address without any column is no address
+        boolean noAddress = address.equals(new Address(null, null, null, null, null));
+        return mapper.map(ids[row], dictionary.value(fields[base + EXTERNAL_ID]), person, noAddress ? null : address);
+    }
+
+    private int allocateRow() {
+        if (freeRow != NONE) {
+            int row = freeRow;
+            freeRow = next[row];
+            return row;
+        }
+        if (rows == ids.length) {
+            fields = Arrays.copyOf(fields, rows * 2 * FIELDS);
+            ids = Arrays.copyOf(ids, rows * 2);
+            next = Arrays.copyOf(next, rows * 2);
+        }
+        return rows++;
+    }
+
+    private void removeRow(long id) {
+        int idSlot = idSlot(id);
+        int row = idSlotRows[idSlot];
+        if (row == NONE) {
+            return;
+        }
+        deleteIdSlot(idSlot);
+        unlinkKey(row);
+        next[row] = freeRow;
+        freeRow = row;
+        size--;
+    }
+
+    private void linkKey(int row) {
+        int base = row * FIELDS;
+        int slot = keySlot(fields[base + FIRST_NAME], fields[base + LAST_NAME], fields[base + BIRTH_DATE]);
+        next[row] = NONE;
+        if (keySlots[slot] == NONE) {
+            keySlots[slot] = row;
+            if (++keys * 2 > keySlots.length) {
+                rehashKeys();
+            }
+            return;
+        }
+        int tail = keySlots[slot];
+        while (next[tail] != NONE) {
+            tail = next[tail];
+        }
+        next[tail] = row;
+    }
+
+    private void unlinkKey(int row) {
+        int base = row * FIELDS;
+        int slot = keySlot(fields[base + FIRST_NAME], fields[base + LAST_NAME], fields[base + BIRTH_DATE]);
+        int head = keySlots[slot];
+        if (head != row) {
+            int previous = head;
+            while (next[previous] != row) {
+                previous = next[previous];
+            }
+            next[previous] = next[row];
+        } else if (next[row] != NONE) {
+            keySlots[slot] = next[row];
+        } else {
+            deleteKeySlot(slot);
+        }
+    }
+
+    /**
+     * Returns the slot of a person key, or the empty slot where it belongs.
+     */
+    private int keySlot(int firstName, int lastName, int birthDate) {
+        int mask = keySlots.length - 1;
+        for (int slot = keyHash(firstName, lastName, birthDate) & mask; ; slot = (slot + 1) & mask) {
+            int row = keySlots[slot];
+            if (row == NONE) {
+                return slot;
+            }
+            int base = row * FIELDS;
+            if (fields[base + FIRST_NAME] == firstName && fields[base + LAST_NAME] == lastName && fields[base + BIRTH_DATE] == birthDate) {
+                return slot;
+            }
+        }
+    }
+
+    private void deleteKeySlot(int slot) {
+        int mask = keySlots.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keySlots[i] != NONE; i = (i + 1) & mask) {
+            if (((i - keyHash(keySlots[i])) & mask) >= ((i - hole) & mask)) {
+                keySlots[hole] = keySlots[i];
+                hole = i;
+            }
+        }
+        keySlots[hole] = NONE;
+        keys--;
+    }
+
+    private void rehashKeys() {
+        var previous = keySlots;
+        keySlots = emptySlots(previous.length * 2);
+        int mask = keySlots.length - 1;
+        for (var row : previous) {
+            if (row != NONE) {
+                int slot = keyHash(row) & mask;
+                while (keySlots[slot] != NONE) {
+                    slot = (slot + 1) & mask;
+                }
+                keySlots[slot] = row;
+            }
+        }
+    }
+
+    private int keyHash(int row) {
+        int base = row * FIELDS;
+        return keyHash(fields[base + FIRST_NAME], fields[base + LAST_NAME], fields[base + BIRTH_DATE]);
+    }
+
+    private static int keyHash(int firstName, int lastName, int birthDate) {
+        return (int) mix(((long) firstName * 0x9e3779b97f4a7c15L + lastName) * 0x9e3779b97f4a7c15L + birthDate);
+    }
+
+    /**
+     * Returns the slot of an id, or the empty slot where it belongs.
+     */
+    private int idSlot(long id) {
+        int mask = idSlotRows.length - 1;
+        for (int slot = (int) mix(id) & mask; ; slot = (slot + 1) & mask) {
+            if (idSlotRows[slot] == NONE || idSlotIds[slot] == id) {
+                return slot;
+            }
+        }
+    }
+
+    private void putId(long id, int row) {
+        int slot = idSlot(id);
+        idSlotIds[slot] = id;
+        idSlotRows[slot] = row;
+        if (size * 2 + 2 > idSlotRows.length) {
+            var previousIds = idSlotIds;
+            var previousRows = idSlotRows;
+            idSlotIds = new long[previousIds.length * 2];
+            idSlotRows = emptySlots(previousRows.length * 2);
+            for (int i = 0; i < previousRows.length; i++) {
+                if (previousRows[i] != NONE) {
+                    int target = idSlot(previousIds[i]);
+                    idSlotIds[target] = previousIds[i];
+                    idSlotRows[target] = previousRows[i];
+                }
+            }
+        }
+    }
+
+    private void deleteIdSlot(int slot) {
+        int mask = idSlotRows.length - 1;
+        int hole = slot;
+        for (int i = (slot + 1) & mask; idSlotRows[i] != NONE; i = (i + 1) & mask) {
+            if (((i - (int) mix(idSlotIds[i])) & mask) >= ((i - hole) & mask)) {
+                idSlotIds[hole] = idSlotIds[i];
+                idSlotRows[hole] = idSlotRows[i];
+                hole = i;
+            }
+        }
+        idSlotRows[hole] = NONE;
+    }
+
+    private static int[] emptySlots(int length) {
+        var slots = new int[length];
+        Arrays.fill(slots, NONE);
+        return slots;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static long arrayBytes(long length, int width) {
+        return align(16 + length * width);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Open-addressing dictionary from field values to dense {@code int} codes.
+     */
+    private static final class Dictionary {
+
+        private String[] values = new String[INITIAL_CAPACITY];
+
+        private int[] slots = emptySlots(INITIAL_CAPACITY * 2);
+
+        private int size;
+
+        private long stringBytes;
+
+        /**
+         * Returns the code of a value, adding it if it is new.
+         */
+        int intern(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            int slot = slot(value);
+            if (slots[slot] != NONE) {
+                return slots[slot];
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            slots[slot] = size;
+            stringBytes += stringBytes(value);
+            if (++size * 2 > slots.length) {
+                slots = emptySlots(slots.length * 2);
+                for (int code = 0; code < size; code++) {
+                    slots[slot(values[code])] = code;
+                }
+            }
+            return size - 1;
+        }
+
+        /**
+         * Returns the code of a value, or {@link #MISSING} if it is not in the dictionary.
+         */
+        int code(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            int code = slots[slot(value)];
+            return code == NONE ? MISSING : code;
+        }
+
+        String value(int code) {
+            return code == NONE ? null : values[code];
+        }
+
+        long footprintBytes() {
+            return arrayBytes(values.length, Integer.BYTES) + arrayBytes(slots.length, Integer.BYTES) + stringBytes;
+        }
+
+        private int slot(String value) {
+            int mask = slots.length - 1;
+            for (int slot = (int) mix(value.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                int code = slots[slot];
+                if (code == NONE || values[code].equals(value)) {
+                    return slot;
+                }
+            }
+        }
+
+        private static long stringBytes(String value) {
+            boolean latin1 = value.chars().allMatch(c -> c < 256);
+            return align(24) + arrayBytes(latin1 ? value.length() : value.length() * 2L, 1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.crunch.ai.function.common;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link jakarta.transaction.Transactional} method as read-only.
+ * <p>
+ * Within the method, the Hibernate session loads entities read-only (no snapshots for dirty checking) and is not
+ * flushed automatically, so the commit of a lookup costs no dirty checking or flush.
+ *
+ * @see ReadOnlyTransactionInterceptor
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReadOnlyTransaction {
+}
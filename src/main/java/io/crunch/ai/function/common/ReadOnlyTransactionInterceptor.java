@@ -0,0 +1,44 @@
+package io.crunch.ai.function.common;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+/**
+ * Interceptor behind {@link ReadOnlyTransaction}.
+ * <p>
+ * It runs inside the transaction started by {@link jakarta.transaction.Transactional} (whose interceptor has a lower
+ * priority) and switches the transaction's session to read-only entities and manual flushing for the duration of the
+ * call. The previous settings are restored afterwards, so a caller that joined the transaction to write keeps working.
+ * <p>
+ * If the caller has unflushed changes in the session, the flush mode is left as is: with manual flushing, the queries
+ * of the call would not see those changes. Only entities loaded during the call are read-only then.
+ */
+@ReadOnlyTransaction
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 300)
+public class ReadOnlyTransactionInterceptor {
+
+    @Inject
+    Session session;
+
+    @AroundInvoke
+    Object readOnly(InvocationContext context) throws Exception {
+        var defaultReadOnly = session.isDefaultReadOnly();
+        var flushMode = session.getHibernateFlushMode();
+        session.setDefaultReadOnly(true);
+        if (!session.isDirty()) {
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+        try {
+            return context.proceed();
+        } finally {
+            session.setHibernateFlushMode(flushMode);
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.crunch.ai.function.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current instance of an in-memory index that is kept up to date from committed changes and rebuilt from
+ * the database from time to time.
+ *
+ * <h2>Reloads</h2>
+ * {@link #reload(Supplier)} builds a new index next to the current one and swaps it in, so rows deleted since the
+ * last load are dropped and lookups never see a half-built index. Changes applied while the new index is built go to
+ * the current index and are recorded; they are replayed on the new index before it is swapped in, so that neither a
+ * change committed after the rows were read is lost nor a row deleted meanwhile is resurrected from a stale read.
+ * <p>
+ * Reloads are serialized by their own lock, which does not block the changes applied meanwhile.
+ *
+ * @param <T> the type of the index; it must be safe to read while a change is applied.
+ */
+public final class ReloadableIndex<T> {
+
+    private volatile T current;
+
+    /**
+     * Changes applied since the running reload started, or {@code null} if no reload is running; guarded by {@code this}.
+     */
+    private List<Consumer<T>> changesDuringLoad;
+
+    private final Lock loadLock = new ReentrantLock();
+
+    public ReloadableIndex(T initial) {
+        this.current = initial;
+    }
+
+    /**
+     * Returns the current index.
+     */
+    public T current() {
+        return current;
+    }
+
+    /**
+     * Applies a change to the current index, and records it for the new index if a reload is running.
+     */
+    public synchronized void apply(Consumer<T> change) {
+        change.accept(current);
+        if (changesDuringLoad != null) {
+            changesDuringLoad.add(change);
+        }
+    }
+
+    /**
+     * Builds a new index, replays the changes applied meanwhile, and swaps it in.
+     *
+     * @param loader builds the new index from the database.
+     * @return the new index.
+     */
+    public T reload(Supplier<T> loader) {
+        loadLock.lock();
+        try {
+            synchronized (this) {
+                changesDuringLoad = new ArrayList<>();
+            }
+            var loaded = loader.get();
+            synchronized (this) {
+                // The changes committed after the rows were read are not in the new index yet
+                changesDuringLoad.forEach(change -> change.accept(loaded));
+                current = loaded;
+            }
+            return loaded;
+        } finally {
+            synchronized (this) {
+                changesDuringLoad = null;
+            }
+            loadLock.unlock();
+        }
+    }
+}
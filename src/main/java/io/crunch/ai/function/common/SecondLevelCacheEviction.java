@@ -0,0 +1,39 @@
+package io.crunch.ai.function.common;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+
+/**
+ * Evicts the Hibernate second-level and query caches after a bulk ingest.
+ * <p>
+ * Hibernate invalidates cached entities and query results itself on every write it executes, but bulk ingest writes
+ * with plain JDBC. After a {@link UsersIngested} event, the cached entities of the ingested type and all cached query
+ * results are therefore evicted, unless {@code user-search.second-level-cache.evict-on-ingest} is off (e.g. when
+ * stale lookups until the configured expiry are acceptable).
+ */
+@ApplicationScoped
+public class SecondLevelCacheEviction {
+
+    private final SessionFactory sessionFactory;
+
+    private final boolean evictOnIngest;
+
+    public SecondLevelCacheEviction(SessionFactory sessionFactory,
+                                    @ConfigProperty(name = "user-search.second-level-cache.evict-on-ingest", defaultValue = "true") boolean evictOnIngest) {
+        this.sessionFactory = sessionFactory;
+        this.evictOnIngest = evictOnIngest;
+    }
+
+    void onUsersIngested(@Observes UsersIngested event) {
+        if (!evictOnIngest) {
+            return;
+        }
+        var cache = sessionFactory.getCache();
+        cache.evictEntityData(event.entityType());
+        cache.evictQueryRegions();
+        Log.infof("Evicted cached %s entities and query results after ingesting %d rows", event.entityType().getSimpleName(), event.rows());
+    }
+}
@@ -0,0 +1,70 @@
+package io.crunch.ai.function.common;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+
+import java.util.function.Consumer;
+
+/**
+ * The {@link PersonDictionaryIndex} of one user table, shared by the dictionary index beans of the statistic and
+ * institute users.
+ *
+ * <h2>Updates</h2>
+ * The beans load the index on startup and after a bulk ingest ({@link UsersIngested}) with {@link #load(Consumer)},
+ * and pass the committed {@link PersonChanged} events of their entity to {@link #put} and {@link #remove}. A load
+ * fills a new index that is swapped in as a {@link ReloadableIndex}, so the changes committed meanwhile are replayed
+ * on it. {@code user.search.dictionary.index.bytes} is its estimated heap footprint, tagged by {@code table}.
+ */
+public final class UserDictionaryIndex {
+
+    private final ReloadableIndex<PersonDictionaryIndex> index = new ReloadableIndex<>(new PersonDictionaryIndex());
+
+    private final String table;
+
+    public UserDictionaryIndex(String table, MeterRegistry registry) {
+        this.table = table;
+        Gauge.builder("user.search.dictionary.index.bytes", this, dictionaryIndex -> dictionaryIndex.current().footprintBytes())
+                .description("Estimated heap footprint of the dictionary-encoded user index")
+                .baseUnit("bytes")
+                .tag("table", table)
+                .register(registry);
+    }
+
+    /**
+     * Returns the current index.
+     */
+    public PersonDictionaryIndex current() {
+        return index.current();
+    }
+
+    /**
+     * Loads every user into a new index, replays the changes committed meanwhile, and swaps it in.
+     *
+     * @param rows puts every row of the table into the given index.
+     */
+    public void load(Consumer<PersonDictionaryIndex> rows) {
+        long start = System.nanoTime();
+        var loaded = index.reload(() -> {
+            var users = new PersonDictionaryIndex();
+            rows.accept(users);
+            return users;
+        });
+        Log.infof("Loaded %d %s rows (%d distinct values, ~%d KiB) into the dictionary index in %d ms",
+                loaded.size(), table, loaded.dictionarySize(), loaded.footprintBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes a committed insert or update.
+     */
+    public void put(long id, String externalId, Person person, Address address) {
+        index.apply(changed -> changed.put(id, externalId, person, address));
+    }
+
+    /**
+     * Indexes a committed delete.
+     */
+    public void remove(long id) {
+        index.apply(changed -> changed.remove(id));
+    }
+}
@@ -0,0 +1,12 @@
+package io.crunch.ai.function.common;
+
+/**
+ * CDI event fired after a bulk ingest has written rows of a user entity.
+ * <p>
+ * Bulk ingest writes with plain JDBC, so no {@link PersonChanged} events are fired for its rows; observers keeping
+ * derived data of users (caches, in-memory indexes) rebuild it from the database instead.
+ *
+ * @param entityType the ingested entity type, for example {@code StatisticUser} or {@code InstituteUser}.
+ * @param rows       the number of rows inserted or updated.
+ */
+public record UsersIngested(Class<?> entityType, long rows) { }
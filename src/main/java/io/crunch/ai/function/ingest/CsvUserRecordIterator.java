@@ -0,0 +1,132 @@
+package io.crunch.ai.function.ingest;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads {@link UserRecord}s from CSV, one line at a time.
+ * <p>
+ * The first line is a header naming the columns: {@code external_id}, {@code first_name}, {@code last_name},
+ * {@code birth_date}, {@code country}, {@code city}, {@code zip_code}, {@code street}, and {@code house_number}, in any
+ * order; {@code external_id} may be missing for institute users. Fields are separated by commas and may be quoted
+ * with double quotes (a quote inside a quoted field is doubled); records cannot span lines. Blank lines are skipped.
+ */
+final class CsvUserRecordIterator implements Iterator<UserRecord> {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("first_name", "last_name", "birth_date",
+            "country", "city", "zip_code", "street", "house_number");
+
+    private final BufferedReader reader;
+
+    private final Map<String, Integer> columns;
+
+    private long lineNumber = 1;
+
+    private String nextLine;
+
+    CsvUserRecordIterator(BufferedReader reader) {
+        this.reader = reader;
+        var header = readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input has no header line");
+        }
+        columns = new HashMap<>();
+        var names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (var column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header has no column " + column);
+            }
+        }
+        nextLine = nextNonBlankLine();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public UserRecord next() {
+        if (nextLine == null) {
+            throw new NoSuchElementException();
+        }
+        var fields = split(nextLine);
+        if (fields.size() != columns.size()) {
+            throw new IllegalArgumentException("CSV line " + lineNumber + " has " + fields.size() + " fields, expected " + columns.size());
+        }
+        var record = new UserRecord(
+                field(fields, "external_id"),
+                new Person(field(fields, "first_name"), field(fields, "last_name"), field(fields, "birth_date")),
+                new Address(field(fields, "country"), field(fields, "city"), field(fields, "zip_code"),
+                        field(fields, "street"), field(fields, "house_number")));
+        nextLine = nextNonBlankLine();
+        return record;
+    }
+
+    private String field(List<String> fields, String column) {
+        var index = columns.get(column);
+        return index == null ? null : fields.get(index);
+    }
+
+    private String nextNonBlankLine() {
+        String line;
+        do {
+            line = readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    private String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> split(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV line " + lineNumber + " has an unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,12 @@
+package io.crunch.ai.function.ingest;
+
+/**
+ * Outcome of a bulk ingest.
+ *
+ * @param table         the table written to.
+ * @param rows          the number of rows inserted or updated.
+ * @param rejected      the number of records skipped because a required field was missing.
+ * @param millis        the duration of the ingest in milliseconds.
+ * @param rowsPerSecond the ingest throughput.
+ */
+public record IngestReport(String table, long rows, long rejected, long millis, double rowsPerSecond) { }
@@ -0,0 +1,127 @@
+package io.crunch.ai.function.ingest;
+
+import io.crunch.ai.function.common.BlockingKey;
+import io.crunch.ai.function.institute.InstituteUser;
+import io.crunch.ai.function.statistic.StatisticUser;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Table a bulk ingest writes to, with its upsert statement.
+ * <p>
+ * The statistic user statement also writes the {@link BlockingKey} columns that the entity maintains on JPA
+ * writes, since bulk ingest bypasses JPA.
+ */
+enum IngestTarget {
+
+    /**
+     * {@code STATISTIC_USER}, upserted on {@code external_id}.
+     */
+    STATISTIC_USERS("statistic_user", StatisticUser.class, """
+            INSERT INTO statistic_user (id, external_id, first_name, last_name, birth_date,
+                                        first_name_phonetic, last_name_phonetic, birth_year,
+                                        country, city, zip_code, street, house_number)
+            VALUES (nextval('statistic_user_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (external_id) DO UPDATE SET
+                first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name, birth_date = EXCLUDED.birth_date,
+                first_name_phonetic = EXCLUDED.first_name_phonetic, last_name_phonetic = EXCLUDED.last_name_phonetic,
+                birth_year = EXCLUDED.birth_year,
+                country = EXCLUDED.country, city = EXCLUDED.city, zip_code = EXCLUDED.zip_code,
+                street = EXCLUDED.street, house_number = EXCLUDED.house_number
+            """) {
+        @Override
+        Object key(UserRecord record) {
+            return record.externalId();
+        }
+
+        @Override
+        void bind(PreparedStatement statement, UserRecord record) throws SQLException {
+            var person = record.person();
+            var blockingKey = BlockingKey.of(person);
+            var address = record.address();
+            statement.setString(1, record.externalId());
+            statement.setString(2, person.firstName());
+            statement.setString(3, person.lastName());
+            statement.setString(4, person.birthDate());
+            statement.setString(5, blockingKey.firstName());
+            statement.setString(6, blockingKey.lastName());
+            if (blockingKey.birthYear() == null) {
+                statement.setNull(7, Types.INTEGER);
+            } else {
+                statement.setInt(7, blockingKey.birthYear());
+            }
+            statement.setString(8, address.country());
+            statement.setString(9, address.city());
+            statement.setString(10, address.zipCode());
+            statement.setString(11, address.street());
+            statement.setString(12, address.houseNumber());
+        }
+    },
+
+    /**
+     * {@code INSTITUTE_USER}, upserted on the person (last name, first name, birth date).
+     */
+    INSTITUTE_USERS("institute_user", InstituteUser.class, """
+            INSERT INTO institute_user (id, first_name, last_name, birth_date,
+                                        country, city, zip_code, street, house_number)
+            VALUES (nextval('institute_user_seq'), ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (last_name, first_name, birth_date) DO UPDATE SET
+                country = EXCLUDED.country, city = EXCLUDED.city, zip_code = EXCLUDED.zip_code,
+                street = EXCLUDED.street, house_number = EXCLUDED.house_number
+            """) {
+        @Override
+        Object key(UserRecord record) {
+            return record.person();
+        }
+
+        @Override
+        void bind(PreparedStatement statement, UserRecord record) throws SQLException {
+            var person = record.person();
+            var address = record.address();
+            statement.setString(1, person.firstName());
+            statement.setString(2, person.lastName());
+            statement.setString(3, person.birthDate());
+            statement.setString(4, address.country());
+            statement.setString(5, address.city());
+            statement.setString(6, address.zipCode());
+            statement.setString(7, address.street());
+            statement.setString(8, address.houseNumber());
+        }
+    };
+
+    private final String table;
+
+    private final Class<?> entityType;
+
+    private final String upsert;
+
+    IngestTarget(String table, Class<?> entityType, String upsert) {
+        this.table = table;
+        this.entityType = entityType;
+        this.upsert = upsert;
+    }
+
+    String table() {
+        return table;
+    }
+
+    Class<?> entityType() {
+        return entityType;
+    }
+
+    String upsert() {
+        return upsert;
+    }
+
+    /**
+     * Returns the upsert key of a record; a batch holds at most one record per key.
+     */
+    abstract Object key(UserRecord record);
+
+    /**
+     * Binds the parameters of the upsert statement.
+     */
+    abstract void bind(PreparedStatement statement, UserRecord record) throws SQLException;
+}
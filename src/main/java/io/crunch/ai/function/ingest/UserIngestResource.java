@@ -0,0 +1,104 @@
+package io.crunch.ai.function.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Admin endpoint for the nightly bulk load of statistic and institute users.
+ * <p>
+ * {@code POST /admin/ingest/statistic-users} and {@code POST /admin/ingest/institute-users} accept either CSV
+ * ({@code text/csv}, see {@link CsvUserRecordIterator}) or newline-delimited JSON ({@code application/x-ndjson},
+ * see {@link UserRecord}). The body is read incrementally while it is written by {@link UserIngestService}, so
+ * inputs of millions of rows are ingested with constant memory. The response is the {@link IngestReport}.
+ * <p>
+ * Malformed input is rejected with {@code 400 Bad Request}; the batches written before the malformed line stay committed.
+ * Other failures, like a broken connection or a failed batch, are not the fault of the client and are left to the
+ * default {@code 500} handling.
+ * <p>
+ * The endpoints write straight into the user tables, so they are disabled unless {@code user-ingest.enabled} is set;
+ * while disabled they answer {@code 404 Not Found}.
+ */
+@Path("/admin/ingest/{target}")
+@Produces(MediaType.APPLICATION_JSON)
+public class UserIngestResource {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private static final ObjectReader NDJSON_READER = new ObjectMapper().readerFor(UserRecord.class);
+
+    private final UserIngestService ingestService;
+
+    private final boolean enabled;
+
+    public UserIngestResource(UserIngestService ingestService,
+                              @ConfigProperty(name = "user-ingest.enabled", defaultValue = "false") boolean enabled) {
+        this.ingestService = ingestService;
+        this.enabled = enabled;
+    }
+
+    @POST
+    @Consumes(TEXT_CSV)
+    @RunOnVirtualThread
+    public IngestReport ingestCsv(@PathParam("target") String target, InputStream body) throws SQLException {
+        var ingestTarget = target(target);
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            return ingestService.ingest(ingestTarget, new CsvUserRecordIterator(reader));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    @POST
+    @Consumes(RestMediaType.APPLICATION_NDJSON)
+    @RunOnVirtualThread
+    public IngestReport ingestNdjson(@PathParam("target") String target, InputStream body) throws IOException, SQLException {
+        var ingestTarget = target(target);
+        try (var records = NDJSON_READER.<UserRecord>readValues(body)) {
+            return ingestService.ingest(ingestTarget, records);
+        } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+            throw malformedNdjson(e);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps the JSON parse errors in a plain RuntimeException
+            if (e.getCause() instanceof JsonProcessingException cause) {
+                throw malformedNdjson(cause);
+            }
+            throw e;
+        }
+    }
+
+    private static BadRequestException malformedNdjson(Exception e) {
+        return new BadRequestException("Malformed NDJSON input: " + e.getMessage(), e);
+    }
+
+    private IngestTarget target(String target) {
+        if (!enabled) {
+            throw new NotFoundException("Bulk ingest is disabled");
+        }
+        return switch (target) {
+            case "statistic-users" -> IngestTarget.STATISTIC_USERS;
+            case "institute-users" -> IngestTarget.INSTITUTE_USERS;
+            default -> throw new NotFoundException("Unknown ingest target: " + target);
+        };
+    }
+}
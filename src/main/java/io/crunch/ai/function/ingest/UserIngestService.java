@@ -0,0 +1,148 @@
+package io.crunch.ai.function.ingest;
+
+import io.crunch.ai.function.common.UsersIngested;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes streams of {@link UserRecord}s to {@code STATISTIC_USER} or {@code INSTITUTE_USER}.
+ *
+ * <h2>Batching</h2>
+ * Records are upserted with JDBC batches of {@code user-ingest.batch-size} rows, each committed on its own, so memory
+ * use does not depend on the input size and a failure keeps the batches committed so far. Within a batch, only the
+ * last record of an upsert key is written, because PostgreSQL cannot update the same row twice in one statement.
+ * Records missing a required field are skipped and counted as rejected.
+ *
+ * <h2>Progress</h2>
+ * Every committed batch is logged with the current throughput. {@code user.ingest.rows} and
+ * {@code user.ingest.rejected} count the rows, and {@code user.ingest.rows.per.second} is the throughput of the
+ * running or last ingest, all tagged by {@code table}.
+ *
+ * <h2>Derived Data</h2>
+ * Ingest bypasses JPA, so a {@link UsersIngested} event is fired afterwards for caches and in-memory indexes to
+ * rebuild from the database.
+ */
+@ApplicationScoped
+public class UserIngestService {
+
+    private final DataSource dataSource;
+
+    private final Event<UsersIngested> ingested;
+
+    private final int batchSize;
+
+    private final Map<IngestTarget, Counter> rowCounters = new EnumMap<>(IngestTarget.class);
+
+    private final Map<IngestTarget, Counter> rejectedCounters = new EnumMap<>(IngestTarget.class);
+
+    private final Map<IngestTarget, AtomicLong> rowsPerSecond = new EnumMap<>(IngestTarget.class);
+
+    public UserIngestService(DataSource dataSource,
+                             Event<UsersIngested> ingested,
+                             @ConfigProperty(name = "user-ingest.batch-size", defaultValue = "1000") int batchSize,
+                             MeterRegistry registry) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The ingest batch size must be positive");
+        }
+        this.dataSource = dataSource;
+        this.ingested = ingested;
+        this.batchSize = batchSize;
+        for (var target : IngestTarget.values()) {
+            var tags = Tags.of("table", target.table());
+            rowCounters.put(target, Counter.builder("user.ingest.rows")
+                    .description("Rows inserted or updated by bulk ingest")
+                    .tags(tags)
+                    .register(registry));
+            rejectedCounters.put(target, Counter.builder("user.ingest.rejected")
+                    .description("Records skipped by bulk ingest because a required field was missing")
+                    .tags(tags)
+                    .register(registry));
+            rowsPerSecond.put(target, registry.gauge("user.ingest.rows.per.second", tags, new AtomicLong()));
+        }
+    }
+
+    /**
+     * Upserts all records into the target table.
+     *
+     * @param target  the table to write to.
+     * @param records the records, read lazily.
+     * @return the ingest report.
+     * @throws SQLException if a batch cannot be written; the batches before it stay committed.
+     */
+    IngestReport ingest(IngestTarget target, Iterator<UserRecord> records) throws SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+        long rejected = 0;
+        var batch = new LinkedHashMap<Object, UserRecord>();
+        try (var connection = dataSource.getConnection();
+             var statement = connection.prepareStatement(target.upsert())) {
+            connection.setAutoCommit(false);
+            while (records.hasNext()) {
+                var record = records.next();
+                if (!record.isComplete(target)) {
+                    rejected++;
+                    rejectedCounters.get(target).increment();
+                    continue;
+                }
+                batch.put(target.key(record), record);
+                if (batch.size() == batchSize) {
+                    rows += write(target, connection, statement, batch);
+                    reportProgress(target, rows, start);
+                }
+            }
+            rows += write(target, connection, statement, batch);
+        } finally {
+            if (rows > 0) {
+                ingested.fire(new UsersIngested(target.entityType(), rows));
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        var report = new IngestReport(target.table(), rows, rejected, millis, reportProgress(target, rows, start));
+        Log.info("Bulk ingest finished: " + report);
+        return report;
+    }
+
+    private long write(IngestTarget target, Connection connection, PreparedStatement statement, Map<Object, UserRecord> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            for (var record : batch.values()) {
+                target.bind(statement, record);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        int written = batch.size();
+        rowCounters.get(target).increment(written);
+        batch.clear();
+        return written;
+    }
+
+    private double reportProgress(IngestTarget target, long rows, long start) {
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        double throughput = rows / seconds;
+        rowsPerSecond.get(target).set(Math.round(throughput));
+        Log.infof("Ingested %d rows into %s (%.0f rows/s)", rows, target.table(), throughput);
+        return throughput;
+    }
+}
@@ -0,0 +1,33 @@
+package io.crunch.ai.function.ingest;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+
+/**
+ * One user of a bulk ingest, as read from a CSV line or an NDJSON object.
+ * <p>
+ * In NDJSON, a record has the same shape as the users returned by the search, for example:
+ * <pre>{@code
+ * {"externalId": "EXT1", "person": {"firstName": "Anna", "lastName": "Schmidt", "birthDate": "1993-09-12"},
+ *  "address": {"country": "Germany", "city": "Berlin", "zipCode": "10117", "street": "Unter den Linden", "houseNumber": "77"}}
+ * }</pre>
+ *
+ * @param externalId the external id; required for statistic users, ignored for institute users.
+ * @param person     the person.
+ * @param address    the address.
+ */
+record UserRecord(String externalId, Person person, Address address) {
+
+    /**
+     * Returns whether the record has every field the target table requires.
+     */
+    boolean isComplete(IngestTarget target) {
+        return person != null && !isBlank(person.firstName()) && !isBlank(person.lastName()) && !isBlank(person.birthDate())
+                && address != null
+                && (target != IngestTarget.STATISTIC_USERS || !isBlank(externalId));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
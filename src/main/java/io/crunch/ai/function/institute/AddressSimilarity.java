@@ -0,0 +1,36 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.model.output.structured.Description;
+
+/**
+ * Field-by-field similarity of a candidate address to the original address.
+ * <p>
+ * Every field is compared on its own with the Jaro-Winkler similarity of the trimmed, upper-cased values;
+ * {@code score} aggregates the field similarities with the weights configured on the
+ * {@link SimilarityDistanceCalculator} ({@code user-search.similarity.weight.*}).
+ * Because the comparison of every field is part of the data, explanations can state which fields match
+ * without reasoning about the address values.
+ *
+ * @param country     the similarity of the countries.
+ * @param city        the similarity of the cities.
+ * @param zipCode     the similarity of the zip codes.
+ * @param street      the similarity of the streets.
+ * @param houseNumber the similarity of the house numbers.
+ * @param score       the weighted aggregate of the field similarities, in {@code [0.0, 1.0]}.
+ */
+@Description("The field-by-field similarity of a candidate address to the original address")
+public record AddressSimilarity(Field country, Field city, Field zipCode, Field street, Field houseNumber, double score) {
+
+    /**
+     * Similarity of one address field.
+     *
+     * @param similarity the Jaro-Winkler similarity of the normalized values, in {@code [0.0, 1.0]}.
+     * @param exact      {@code true} if the normalized values are identical.
+     */
+    public record Field(double similarity, boolean exact) {
+
+        static Field of(double similarity) {
+            return new Field(similarity, similarity == 1d);
+        }
+    }
+}
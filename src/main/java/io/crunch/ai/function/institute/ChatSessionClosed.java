@@ -0,0 +1,9 @@
+package io.crunch.ai.function.institute;
+
+/**
+ * CDI event fired by the {@link InstituteChatMemoryStore} when a search session ends, either because its memory
+ * was cleared or because it was evicted.
+ *
+ * @param memoryId the memory id of the ended session.
+ */
+public record ChatSessionClosed(Object memoryId) { }
@@ -4,18 +4,34 @@ import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+/**
+ * Provides a separate {@link MessageWindowChatMemory} for every search session.
+ * <p>
+ * The returned memories are thin views over the shared {@link InstituteChatMemoryStore}, which keys the
+ * messages by the memory id, bounds the number of live sessions, and evicts idle ones. Clearing a memory
+ * removes its session from the store.
+ */
 @Singleton
 public class InstituteChatMemoryProvider implements ChatMemoryProvider {
 
-    private final ChatMemory chatMemory;
+    private final InstituteChatMemoryStore chatMemoryStore;
 
-    public InstituteChatMemoryProvider() {
-        this.chatMemory = MessageWindowChatMemory.withMaxMessages(50);
+    private final int maxMessages;
+
+    public InstituteChatMemoryProvider(InstituteChatMemoryStore chatMemoryStore,
+                                       @ConfigProperty(name = "institute.chat-memory.max-messages", defaultValue = "50") int maxMessages) {
+        this.chatMemoryStore = chatMemoryStore;
+        this.maxMessages = maxMessages;
     }
 
     @Override
     public ChatMemory get(Object memoryId) {
-        return chatMemory;
+        return MessageWindowChatMemory.builder()
+                .id(memoryId)
+                .maxMessages(maxMessages)
+                .chatMemoryStore(chatMemoryStore)
+                .build();
     }
 }
@@ -0,0 +1,167 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, concurrent {@link ChatMemoryStore} that keeps the messages of every search conversation
+ * under its own memory id (the {@code sessionId} generated per request by {@link InstituteUserResource}).
+ *
+ * <h2>Concurrency</h2>
+ * Sessions are held in a {@link ConcurrentHashMap}; every session is only touched by the request
+ * that owns it, so reads and writes of different searches never contend on a shared lock.
+ * Message lists are stored as immutable copies and replaced atomically on update.
+ *
+ * <h2>Eviction</h2>
+ * <ul>
+ *   <li><b>Explicit:</b> clearing the {@code ChatMemory} of a session removes the session entirely.</li>
+ *   <li><b>Idle time:</b> sessions that have not been accessed for {@code institute.chat-memory.idle-timeout}
+ *       are dropped; the sweep piggybacks on regular writes, at most once per {@code idle-timeout / 2}.</li>
+ *   <li><b>Size:</b> when more than {@code institute.chat-memory.max-sessions} sessions are live,
+ *       the least recently accessed ones are dropped until 90% of the bound is reached.</li>
+ * </ul>
+ * Every removed session is announced with a {@link ChatSessionClosed} event, so state kept per session elsewhere
+ * (e.g. the {@link ToolInvocationMemo}) is dropped together with it.
+ *
+ * <h2>Metrics</h2>
+ * <ul>
+ *   <li>{@code institute.chat.memory.sessions} — number of live sessions.</li>
+ *   <li>{@code institute.chat.memory.evictions} — evicted sessions, tagged by {@code cause} ({@code idle} or {@code size}).</li>
+ * </ul>
+ */
+@Singleton
+public class InstituteChatMemoryStore implements ChatMemoryStore {
+
+    private final Map<Object, Session> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweep;
+
+    /**
+     * Source of {@link System#nanoTime()}; replaced in tests.
+     */
+    private final LongSupplier nanoClock;
+
+    private final int maxSessions;
+
+    private final long idleTimeoutNanos;
+
+    private final Counter idleEvictions;
+
+    private final Counter sizeEvictions;
+
+    private final Event<ChatSessionClosed> sessionClosed;
+
+    @Inject
+    public InstituteChatMemoryStore(@ConfigProperty(name = "institute.chat-memory.max-sessions", defaultValue = "10000") int maxSessions,
+                                    @ConfigProperty(name = "institute.chat-memory.idle-timeout", defaultValue = "5m") Duration idleTimeout,
+                                    MeterRegistry registry,
+                                    Event<ChatSessionClosed> sessionClosed) {
+        this(maxSessions, idleTimeout, registry, sessionClosed, System::nanoTime);
+    }
+
+    InstituteChatMemoryStore(int maxSessions, Duration idleTimeout, MeterRegistry registry, Event<ChatSessionClosed> sessionClosed,
+                             LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+        this.maxSessions = maxSessions;
+        this.sessionClosed = sessionClosed;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        Gauge.builder("institute.chat.memory.sessions", sessions, Map::size)
+                .description("Number of live chat memory sessions")
+                .register(registry);
+        this.idleEvictions = evictionCounter(registry, "idle");
+        this.sizeEvictions = evictionCounter(registry, "size");
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        var session = sessions.get(memoryId);
+        if (session == null) {
+            return List.of();
+        }
+        session.lastAccess = nanoClock.getAsLong();
+        return session.messages;
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        sessions.put(memoryId, new Session(List.copyOf(messages), nanoClock.getAsLong()));
+        evictIfNecessary();
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        sessions.remove(memoryId);
+        sessionClosed.fire(new ChatSessionClosed(memoryId));
+    }
+
+    /**
+     * Drops idle sessions when the sweep interval has elapsed, and the least recently used sessions
+     * when the store holds more than {@code maxSessions} entries.
+     */
+    private void evictIfNecessary() {
+        var now = nanoClock.getAsLong();
+        var last = lastSweep.get();
+        if (now - last >= idleTimeoutNanos / 2 && lastSweep.compareAndSet(last, now)) {
+            sessions.entrySet().removeIf(e -> {
+                var idle = now - e.getValue().lastAccess >= idleTimeoutNanos;
+                if (idle) {
+                    idleEvictions.increment();
+                    sessionClosed.fire(new ChatSessionClosed(e.getKey()));
+                }
+                return idle;
+            });
+        }
+        if (sessions.size() > maxSessions) {
+            // Evict down to 90% of the bound, so a store running at capacity does not sort on every write
+            var overflow = sessions.size() - maxSessions * 9L / 10;
+            Log.warn("Chat memory store exceeded " + maxSessions + " sessions, evicting " + overflow + " least recently used");
+            sessions.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .limit(overflow)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(id -> {
+                        if (sessions.remove(id) != null) {
+                            sizeEvictions.increment();
+                            sessionClosed.fire(new ChatSessionClosed(id));
+                        }
+                    });
+        }
+    }
+
+    private static Counter evictionCounter(MeterRegistry registry, String cause) {
+        return Counter.builder("institute.chat.memory.evictions")
+                .description("Number of chat memory sessions evicted before being cleared by their request")
+                .tag("cause", cause)
+                .register(registry);
+    }
+
+    private static final class Session {
+
+        private final List<ChatMessage> messages;
+
+        private volatile long lastAccess;
+
+        private Session(List<ChatMessage> messages, long lastAccess) {
+            this.messages = messages;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -2,13 +2,21 @@ package io.crunch.ai.function.institute;
 
 import io.crunch.ai.function.common.Address;
 import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChangeListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "INSTITUTE_USER")
+@Cacheable
+@EntityListeners(PersonChangeListener.class)
+@Table(name = "INSTITUTE_USER", indexes = {
+        @Index(name = "institute_user_person_idx", columnList = "last_name, first_name, birth_date", unique = true)
+})
 public class InstituteUser extends PanacheEntity {
 
     @Embedded
@@ -0,0 +1,99 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.common.PersonDictionaryIndex;
+import io.crunch.ai.function.common.UserDictionaryIndex;
+import io.crunch.ai.function.common.UsersIngested;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Optional;
+
+/**
+ * Dictionary-encoded {@link PersonDictionaryIndex} of all {@link InstituteUser}s, answering the lookups of
+ * {@link InstituteUserService} from the heap when {@code user-search.dictionary-index.enabled} is set.
+ *
+ * <h2>Updates</h2>
+ * The index is loaded on startup and kept up to date from committed {@link PersonChanged} events of
+ * {@link InstituteUser} rows; after a bulk ingest ({@link UsersIngested}) a new index is loaded and swapped in.
+ * Loading, the replay of the changes committed meanwhile, and the footprint gauge are shared with the other user
+ * table in {@link UserDictionaryIndex}.
+ */
+@ApplicationScoped
+public class InstituteUserDictionaryIndex {
+
+    private final UserDictionaryIndex index;
+
+    private final boolean enabled;
+
+    public InstituteUserDictionaryIndex(@ConfigProperty(name = "user-search.dictionary-index.enabled", defaultValue = "false") boolean enabled,
+                                        MeterRegistry registry) {
+        this.enabled = enabled;
+        this.index = new UserDictionaryIndex("institute_user", registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the institute user with exactly the given person; the person is unique among institute users.
+     */
+    Optional<InstituteUserView> find(String firstName, String lastName, String birthDate) {
+        return index.current().find(firstName, lastName, birthDate, (id, externalId, person, address) -> new InstituteUserView(address))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Returns the number of indexed users.
+     */
+    public int size() {
+        return index.current().size();
+    }
+
+    @Transactional
+    void onStartup(@Observes StartupEvent event) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Transactional
+    void onUsersIngested(@Observes UsersIngested event) {
+        if (enabled && event.entityType() == InstituteUser.class) {
+            load();
+        }
+    }
+
+    /**
+     * Loads every institute user into a new index and swaps it in.
+     */
+    private void load() {
+        index.load(loaded -> {
+            try (var rows = InstituteUser.getEntityManager()
+                    .createQuery("select u.id, u.person, u.address from InstituteUser u", Object[].class)
+                    .getResultStream()) {
+                rows.forEach(row -> loaded.put((Long) row[0], null, (Person) row[1], (Address) row[2]));
+            }
+        });
+    }
+
+    void onPersonChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PersonChanged event) {
+        if (!enabled || !(event.entity() instanceof InstituteUser user)) {
+            return;
+        }
+        if (event.type() == PersonChanged.Type.DELETED) {
+            index.remove(user.id);
+        } else {
+            index.put(user.id, null, user.getPerson(), user.getAddress());
+        }
+    }
+}
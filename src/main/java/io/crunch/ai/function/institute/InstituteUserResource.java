@@ -1,59 +1,75 @@
 package io.crunch.ai.function.institute;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
 import io.crunch.ai.function.statistic.UserSearchResult;
 import io.quarkus.logging.Log;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import org.jboss.resteasy.reactive.RestResponse;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * REST entry point of the user search.
+ * <p>
+ * A search may wait on the model for up to {@code quarkus.langchain4j.timeout}. The endpoints therefore run on
+ * virtual threads: a waiting search parks its virtual thread instead of holding a worker thread, so the number
+ * of in-flight searches is no longer bounded by the worker pool. The blocking Panache lookups of the tools run
+ * unchanged on the virtual thread.
+ * <p>
+ * {@code POST /users/batch} accepts at most {@value UserSearchBatchService#MAX_QUERIES} queries; larger batches
+ * belong on {@code POST /users/stream}, which does not hold all results in memory.
+ */
 @Path("/users")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class InstituteUserResource {
 
-    private final UserSearchAssistant searchAssistant;
+    private final UserSearchPipeline searchPipeline;
 
     private final InstituteUserService instituteUserService;
 
     private final ChatMemoryProvider chatMemoryProvider;
 
-    public InstituteUserResource(UserSearchAssistant searchAssistant, InstituteUserService instituteUserService, ChatMemoryProvider chatMemoryProvider) {
-        this.searchAssistant = searchAssistant;
+    private final UserSearchBatchService batchService;
+
+    public InstituteUserResource(UserSearchPipeline searchPipeline, InstituteUserService instituteUserService, ChatMemoryProvider chatMemoryProvider,
+                                 UserSearchBatchService batchService) {
+        this.searchPipeline = searchPipeline;
         this.instituteUserService = instituteUserService;
         this.chatMemoryProvider = chatMemoryProvider;
+        this.batchService = batchService;
     }
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
     public RestResponse<UserSearchResult> search(@BeanParam @Valid UserSearchQuery query) {
         Log.info("Received user search request: " + query);
         var sessionId = UUID.randomUUID().toString();
         try {
             if (instituteUserService.isValidInstituteUser(query.firstName(), query.lastName(), query.birthDate())) {
-                var result = searchAssistant.search(sessionId, query);
-                Log.info("User search result: " + result);
-                return RestResponse.ResponseBuilder.ok(getResultEntity(result)).build();
+                return RestResponse.ResponseBuilder.ok(searchPipeline.search(sessionId, query)).build();
             }
             Log.warn("No valid institute user found for person: " + query.firstName() + " " + query.lastName() + ", birthDate=" + query.birthDate());
             return RestResponse.notFound();
-        } catch (JsonProcessingException e) {
-            Log.error("Error processing user search request", e);
-            throw new WebApplicationException("Failed to process user search request", e, 500);
         } finally {
             Optional.ofNullable(chatMemoryProvider.get(sessionId)).ifPresent(ChatMemory::clear);
         }
     }
 
-    private UserSearchResult getResultEntity(String result) throws JsonProcessingException {
-        return new ObjectMapper().readValue(result, UserSearchResult.class);
+    @POST
+    @Path("/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public List<UserSearchBatchItem> searchBatch(@NotNull @Size(max = UserSearchBatchService.MAX_QUERIES) List<UserSearchQuery> queries) {
+        return batchService.search(queries);
     }
-
 }
@@ -4,9 +4,13 @@ import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import io.crunch.ai.function.common.Address;
 import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.ReadOnlyTransaction;
+import io.quarkus.arc.Arc;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.Optional;
 
@@ -40,9 +44,21 @@ import java.util.Optional;
  *   <li>The input {@link Person} must not be {@code null} or empty.</li>
  * </ul>
  *
+ * <h2>Request-Scoped Reuse</h2>
+ * {@link #isValidInstituteUser(String, String, String)} loads the user to validate it; its address is kept in the
+ * request-scoped {@link ValidatedInstituteUsers}. {@code getUserAddress} for the same person in the same request is
+ * served from there without another database round trip. Outside an active request context, both always query.
+ * <p>
+ * If {@code user-search.dictionary-index.enabled} is set, institute users are looked up in the in-memory
+ * {@link InstituteUserDictionaryIndex} instead of the database. Otherwise, the lookup goes through the Hibernate query
+ * cache (region {@value #LOOKUP_CACHE_REGION}) unless {@code user-search.query-cache.enabled} is off;
+ * {@link InstituteUser} entities are in the second-level cache.
+ *
  * <h2>Transactional Behavior</h2>
  * The {@code getUserAddress} method is transactional and ensures database operations are
  * executed within a transaction boundary. By default, it is not necessary to annotate, but some test scenarios require it.
+ * The transaction is a {@link ReadOnlyTransaction}, and users are loaded as {@link InstituteUserView} projections
+ * instead of managed entities, since lookups never write.
  *
  * @see Person
  * @see Address
@@ -51,6 +67,22 @@ import java.util.Optional;
 @ApplicationScoped
 public class InstituteUserService {
 
+    static final String LOOKUP_CACHE_REGION = "institute-user-lookups";
+
+    private final ValidatedInstituteUsers validatedUsers;
+
+    private final InstituteUserDictionaryIndex dictionaryIndex;
+
+    private final boolean queryCacheEnabled;
+
+    public InstituteUserService(ValidatedInstituteUsers validatedUsers,
+                                InstituteUserDictionaryIndex dictionaryIndex,
+                                @ConfigProperty(name = "user-search.query-cache.enabled", defaultValue = "true") boolean queryCacheEnabled) {
+        this.validatedUsers = validatedUsers;
+        this.dictionaryIndex = dictionaryIndex;
+        this.queryCacheEnabled = queryCacheEnabled;
+    }
+
     @Tool(name = "getUserAddress",
           value = """
             Use this tool to obtain the full address of the ORIGINAL query person.
@@ -78,20 +110,39 @@ public class InstituteUserService {
         """
     )
     @Transactional
+    @ReadOnlyTransaction
     public Address getUserAddress(@P(value = "The person whose address should be fetched.", required = true) Person person) {
         Log.info("Getting user address for person: " + person);
+        var validated = isRequestContextActive() ? validatedUsers.address(person) : Optional.<Address>empty();
+        if (validated.isPresent()) {
+            Log.info("Serving address of validated institute user from request scope: " + person);
+            return validated.get();
+        }
         return getInstituteUser(person.firstName(), person.lastName(), person.birthDate())
-                .map(InstituteUser::getAddress)
+                .map(InstituteUserView::address)
                 .orElseThrow(() -> new NoInstituteUserFound("No user found for person: " + person));
     }
 
     public boolean isValidInstituteUser(String firstName, String lastName, String birthDate) {
-        return getInstituteUser(firstName, lastName, birthDate).isPresent();
+        var user = getInstituteUser(firstName, lastName, birthDate);
+        if (user.isPresent() && isRequestContextActive()) {
+            validatedUsers.remember(new Person(firstName, lastName, birthDate), user.get().address());
+        }
+        return user.isPresent();
+    }
+
+    private static boolean isRequestContextActive() {
+        return Arc.container().requestContext().isActive();
     }
 
-    private Optional<InstituteUser> getInstituteUser(String firstName, String lastName, String birthDate) {
+    private Optional<InstituteUserView> getInstituteUser(String firstName, String lastName, String birthDate) {
+        if (dictionaryIndex.isEnabled()) {
+            return dictionaryIndex.find(firstName, lastName, birthDate);
+        }
         return InstituteUser.find("person.firstName = ?1 and person.lastName = ?2 and person.birthDate = ?3", firstName, lastName, birthDate)
-                .singleResultOptional()
-                .map(e -> (InstituteUser) e);
+                .project(InstituteUserView.class)
+                .withHint(HibernateHints.HINT_CACHEABLE, queryCacheEnabled)
+                .withHint(HibernateHints.HINT_CACHE_REGION, LOOKUP_CACHE_REGION)
+                .singleResultOptional();
     }
 }
@@ -0,0 +1,78 @@
+package io.crunch.ai.function.institute;
+
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMediaType;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Streaming variant of the bulk user search.
+ * <p>
+ * Instead of waiting for the whole batch like {@code POST /users/batch}, every {@link UserSearchBatchItem} is
+ * written to the client as soon as its query completes, so results arrive in completion order and the first
+ * result is available after a single lookup. The {@code index} of each item identifies its query.
+ * <p>
+ * At most {@code user-search.stream.max-in-flight} queries of a stream are executed at the same time, each on a
+ * virtual thread. Further queries are only started when the client has consumed earlier results, so the number of
+ * results held in memory does not depend on the batch size.
+ * <p>
+ * Like {@code POST /users/batch}, a request holds at most {@value UserSearchBatchService#MAX_QUERIES} queries; larger
+ * or missing batches are rejected with {@code 400 Bad Request}.
+ * <p>
+ * The response is either newline-delimited JSON or server-sent events, depending on the {@code Accept} header.
+ */
+@Path("/users/stream")
+@Consumes(MediaType.APPLICATION_JSON)
+public class InstituteUserStreamResource {
+
+    private final UserSearchBatchService batchService;
+
+    private final ExecutorService virtualThreads;
+
+    private final int maxInFlight;
+
+    public InstituteUserStreamResource(UserSearchBatchService batchService,
+                                       @VirtualThreads ExecutorService virtualThreads,
+                                       @ConfigProperty(name = "user-search.stream.max-in-flight", defaultValue = "16") int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("The maximum number of in-flight stream queries must be positive");
+        }
+        this.batchService = batchService;
+        this.virtualThreads = virtualThreads;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @POST
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<UserSearchBatchItem> searchAsNdjson(@NotNull @Size(max = UserSearchBatchService.MAX_QUERIES) List<UserSearchQuery> queries) {
+        return search(queries);
+    }
+
+    @POST
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<UserSearchBatchItem> searchAsEvents(@NotNull @Size(max = UserSearchBatchService.MAX_QUERIES) List<UserSearchQuery> queries) {
+        return search(queries);
+    }
+
+    private Multi<UserSearchBatchItem> search(List<UserSearchQuery> queries) {
+        return Multi.createFrom().range(0, queries.size())
+                .onItem().transformToUni(index -> Uni.createFrom()
+                        .item(() -> batchService.searchItem(index, queries.get(index)))
+                        .runSubscriptionOn(virtualThreads))
+                .merge(maxInFlight);
+    }
+}
@@ -0,0 +1,10 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+
+/**
+ * Read-only projection of an {@link InstituteUser}, loaded without managing the entity.
+ *
+ * @param address the address of the user.
+ */
+record InstituteUserView(Address address) { }
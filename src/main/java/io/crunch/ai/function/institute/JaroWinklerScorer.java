@@ -0,0 +1,304 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Allocation-free Jaro-Winkler scoring of {@link Address}es.
+ * <p>
+ * Addresses are normalized straight from their fields into the char buffers of a {@link Workspace}, and the
+ * Jaro-Winkler similarity is computed on those buffers with the workspace's match arrays. A batch of candidates is
+ * scored with one workspace per chunk of {@value #CHUNK_SIZE} candidates, so no strings or arrays are allocated per
+ * score once the buffers have grown to the longest address of the chunk. Workspaces are not kept in thread-locals:
+ * the searches run on virtual threads, which are not reused, so a thread-local workspace would be allocated per
+ * search anyway and kept alive with the thread.
+ *
+ * <h2>Equivalence</h2>
+ * The scores are bit-for-bit identical to
+ * {@code new JaroWinklerSimilarity().apply(normalize(original), normalize(candidate))} of commons-text, where
+ * {@code normalize} trims every field, upper-cases it with {@link String#toUpperCase(Locale) toUpperCase(Locale.ROOT)},
+ * and concatenates country, city, zip code, street, and house number ({@code null} fields and addresses are empty).
+ * Case folding follows {@code Locale.ROOT}, including the characters whose upper case has several characters
+ * (e.g. {@code ß} becomes {@code SS}), so the result does not depend on the default locale of the JVM.
+ */
+final class JaroWinklerScorer {
+
+    private static final double SCALING_FACTOR = 0.1;
+
+    /**
+     * Length of the common prefix that is rewarded by the Winkler adjustment.
+     */
+    private static final int MAX_PREFIX = 4;
+
+    /**
+     * Longest upper-case expansion of a single character, e.g. {@code ΐ} to three characters.
+     */
+    private static final int MAX_EXPANSION = 3;
+
+    /**
+     * Upper case of every non-ASCII BMP character; {@code 0} marks the characters that expand to several characters.
+     */
+    private static final char[] UPPER = new char[Character.MAX_VALUE + 1];
+
+    private static final char[] EXPANDING;
+
+    private static final char[][] EXPANSIONS;
+
+    static {
+        var expanding = new StringBuilder();
+        var expansions = new ArrayList<char[]>();
+        for (int c = 0x80; c <= Character.MAX_VALUE; c++) {
+            var upper = String.valueOf((char) c).toUpperCase(Locale.ROOT);
+            if (upper.length() == 1) {
+                UPPER[c] = upper.charAt(0);
+            } else {
+                expanding.append((char) c);
+                expansions.add(upper.toCharArray());
+            }
+        }
+        EXPANDING = expanding.toString().toCharArray();
+        EXPANSIONS = expansions.toArray(char[][]::new);
+    }
+
+    /**
+     * Number of candidates of a batch scored with the same workspace.
+     */
+    static final int CHUNK_SIZE = 64;
+
+    private JaroWinklerScorer() {
+    }
+
+    /**
+     * Scores a candidate address against the original address.
+     *
+     * @param original  the original address, may be {@code null}.
+     * @param candidate the candidate address, may be {@code null}.
+     * @return the Jaro-Winkler similarity of the normalized addresses, in {@code [0.0, 1.0]}.
+     */
+    static double similarity(Address original, Address candidate) {
+        return new Workspace().similarity(original, candidate);
+    }
+
+    /**
+     * Scores a single candidate address field against the same field of the original address.
+     * <p>
+     * Both values are trimmed and upper-cased like the fields of a whole address; the score is {@code 1.0}
+     * exactly when the normalized values are equal.
+     *
+     * @param original  the original field value, may be {@code null}.
+     * @param candidate the candidate field value, may be {@code null}.
+     * @return the Jaro-Winkler similarity of the normalized values, in {@code [0.0, 1.0]}.
+     */
+    static double similarity(String original, String candidate) {
+        return new Workspace().similarity(original, candidate);
+    }
+
+    /**
+     * Scores all candidate addresses against the original address.
+     *
+     * @param original   the original address, may be {@code null}.
+     * @param candidates the candidate addresses.
+     * @param parallel   whether the candidates are scored in parallel.
+     * @return the scores, in candidate order.
+     */
+    static double[] similarities(Address original, List<Address> candidates, boolean parallel) {
+        // The original is shared by all chunks, so it is normalized into a buffer of its own
+        var normalizedOriginal = new Buffer();
+        normalizedOriginal.normalize(original);
+        var scores = new double[candidates.size()];
+        chunks(candidates.size(), parallel).forEach(chunk -> {
+            var workspace = new Workspace();
+            for (int i = chunk * CHUNK_SIZE, end = Math.min(i + CHUNK_SIZE, scores.length); i < end; i++) {
+                workspace.right.normalize(candidates.get(i));
+                scores[i] = workspace.similarity(normalizedOriginal, workspace.right);
+            }
+        });
+        return scores;
+    }
+
+    /**
+     * Returns the chunk numbers of a batch; chunk {@code c} holds the candidates from {@code c * CHUNK_SIZE}
+     * up to {@code (c + 1) * CHUNK_SIZE}, exclusive.
+     *
+     * @param size     the number of candidates of the batch.
+     * @param parallel whether the chunks are processed in parallel.
+     * @return the chunk numbers.
+     */
+    static IntStream chunks(int size, boolean parallel) {
+        var chunks = IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return parallel ? chunks.parallel() : chunks;
+    }
+
+    /**
+     * Returns the normalized form of an address, as compared by {@link #similarity(Address, Address)}.
+     *
+     * @param address the address, may be {@code null}.
+     * @return the normalized address.
+     */
+    static String normalize(Address address) {
+        var buffer = new Buffer();
+        buffer.normalize(address);
+        return new String(buffer.chars, 0, buffer.length);
+    }
+
+    /**
+     * Growable char buffer holding a normalized address.
+     */
+    private static final class Buffer {
+
+        private char[] chars = new char[64];
+
+        private int length;
+
+        private void normalize(Address address) {
+            length = 0;
+            if (address != null) {
+                appendUpperCase(address.country());
+                appendUpperCase(address.city());
+                appendUpperCase(address.zipCode());
+                appendUpperCase(address.street());
+                appendUpperCase(address.houseNumber());
+            }
+        }
+
+        private void normalize(String value) {
+            length = 0;
+            appendUpperCase(value);
+        }
+
+        /**
+         * Appends the trimmed, upper-cased value, like {@code value.trim().toUpperCase(Locale.ROOT)}.
+         */
+        private void appendUpperCase(String value) {
+            if (value == null) {
+                return;
+            }
+            int start = 0;
+            int end = value.length();
+            while (start < end && value.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && value.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            ensureCapacity(length + (end - start) * MAX_EXPANSION);
+            for (int i = start; i < end; i++) {
+                var c = value.charAt(i);
+                if (c < 0x80) {
+                    chars[length++] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    length += Character.toChars(Character.toUpperCase(codePoint), chars, length);
+                } else if (UPPER[c] != 0) {
+                    chars[length++] = UPPER[c];
+                } else {
+                    var expansion = EXPANSIONS[Arrays.binarySearch(EXPANDING, c)];
+                    System.arraycopy(expansion, 0, chars, length, expansion.length);
+                    length += expansion.length;
+                }
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Buffers of the scorer, reused for the scores of one caller; not thread-safe.
+     */
+    static final class Workspace {
+
+        private final Buffer left = new Buffer();
+
+        private final Buffer right = new Buffer();
+
+        private int[] matchIndexes = new int[64];
+
+        private boolean[] matchFlags = new boolean[64];
+
+        /**
+         * Scores a candidate address against the original address, like {@link JaroWinklerScorer#similarity(Address, Address)}.
+         */
+        double similarity(Address original, Address candidate) {
+            left.normalize(original);
+            right.normalize(candidate);
+            return similarity(left, right);
+        }
+
+        /**
+         * Scores a candidate field against the original field, like {@link JaroWinklerScorer#similarity(String, String)}.
+         */
+        double similarity(String original, String candidate) {
+            left.normalize(original);
+            right.normalize(candidate);
+            return similarity(left, right);
+        }
+
+        /**
+         * Jaro-Winkler similarity of two normalized addresses, following commons-text {@code JaroWinklerSimilarity}.
+         */
+        private double similarity(Buffer first, Buffer second) {
+            if (Arrays.equals(first.chars, 0, first.length, second.chars, 0, second.length)) {
+                return 1d;
+            }
+            var max = first.length > second.length ? first : second;
+            var min = max == first ? second : first;
+            int range = Math.max(max.length / 2 - 1, 0);
+            if (matchIndexes.length < min.length) {
+                matchIndexes = new int[Math.max(min.length, matchIndexes.length * 2)];
+            }
+            if (matchFlags.length < max.length) {
+                matchFlags = new boolean[Math.max(max.length, matchFlags.length * 2)];
+            }
+            Arrays.fill(matchFlags, 0, max.length, false);
+
+            int matches = 0;
+            for (int mi = 0; mi < min.length; mi++) {
+                var c = min.chars[mi];
+                matchIndexes[mi] = -1;
+                for (int xi = Math.max(mi - range, 0), xn = Math.min(mi + range + 1, max.length); xi < xn; xi++) {
+                    if (!matchFlags[xi] && c == max.chars[xi]) {
+                        matchIndexes[mi] = xi;
+                        matchFlags[xi] = true;
+                        matches++;
+                        break;
+                    }
+                }
+            }
+            if (matches == 0) {
+                return 0d;
+            }
+
+            // The matched characters of min in min order are compared with the matched characters of max in max order
+            int halfTranspositions = 0;
+            for (int mi = 0, xi = 0; mi < min.length; mi++) {
+                if (matchIndexes[mi] != -1) {
+                    while (!matchFlags[xi]) {
+                        xi++;
+                    }
+                    if (min.chars[mi] != max.chars[xi]) {
+                        halfTranspositions++;
+                    }
+                    xi++;
+                }
+            }
+
+            int prefix = 0;
+            for (int mi = 0, n = Math.min(MAX_PREFIX, min.length); mi < n && first.chars[mi] == second.chars[mi]; mi++) {
+                prefix++;
+            }
+
+            double m = matches;
+            double j = (m / first.length + m / second.length + (m - (double) halfTranspositions / 2) / m) / 3;
+            return j < 0.7d ? j : j + SCALING_FACTOR * prefix * (1d - j);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.crunch.ai.function.institute;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Locale;
+
+/**
+ * Builds the explanation of a {@code SIMILARMATCH} candidate from its {@link PersonSimilarity} and {@link AddressSimilarity}.
+ * <p>
+ * The explanation has the format the assistant used to write itself, for example:
+ * <pre>
+ * Similarity 0.82. country matches, city differs, zipCode differs, street matches, houseNumber matches. High similarity, most fields match.
+ * </pre>
+ * <ul>
+ *   <li>the score of the candidate with two decimals;</li>
+ *   <li>if the candidate is not the searched person, e.g. a candidate of the fuzzy search, the fields
+ *       firstName → lastName → birthDate;</li>
+ *   <li>every address field in the order country → city → zipCode → street → houseNumber, with "matches" if the
+ *       field is an exact match and "differs" otherwise;</li>
+ *   <li>the score band — {@code High} from {@code user-search.explanation.high-similarity}, {@code Medium} from
+ *       {@code user-search.explanation.medium-similarity}, {@code Low} below — and how many fields match.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class MatchExplanationGenerator {
+
+    private final double highSimilarity;
+
+    private final double mediumSimilarity;
+
+    public MatchExplanationGenerator(@ConfigProperty(name = "user-search.explanation.high-similarity", defaultValue = "0.85") double highSimilarity,
+                                     @ConfigProperty(name = "user-search.explanation.medium-similarity", defaultValue = "0.6") double mediumSimilarity) {
+        if (mediumSimilarity > highSimilarity) {
+            throw new IllegalArgumentException("The medium similarity threshold must not be above the high similarity threshold");
+        }
+        this.highSimilarity = highSimilarity;
+        this.mediumSimilarity = mediumSimilarity;
+    }
+
+    /**
+     * Explains the similarity of a candidate address, for a candidate that is the searched person.
+     *
+     * @param similarity the field-by-field similarity of the candidate address.
+     * @return the explanation.
+     */
+    public String explain(AddressSimilarity similarity) {
+        return explain(similarity.score(), null, similarity);
+    }
+
+    /**
+     * Explains the similarity of a candidate.
+     *
+     * @param score   the score of the candidate.
+     * @param person  the field-by-field similarity of the candidate person; its fields are only listed if they do
+     *                not all match. May be {@code null} if the candidate is the searched person.
+     * @param address the field-by-field similarity of the candidate address.
+     * @return the explanation.
+     */
+    public String explain(double score, PersonSimilarity person, AddressSimilarity address) {
+        var explanation = new StringBuilder(160)
+                .append("Similarity ").append(String.format(Locale.ROOT, "%.2f", score)).append(". ");
+        int fields = 5;
+        int matches = 0;
+        if (person != null && !person.exact()) {
+            fields += 3;
+            matches += appendField(explanation, "firstName", person.firstName());
+            matches += appendField(explanation, "lastName", person.lastName());
+            matches += appendField(explanation, "birthDate", person.birthDate());
+        }
+        matches += appendField(explanation, "country", address.country());
+        matches += appendField(explanation, "city", address.city());
+        matches += appendField(explanation, "zipCode", address.zipCode());
+        matches += appendField(explanation, "street", address.street());
+        matches += appendField(explanation, "houseNumber", address.houseNumber());
+        explanation.setLength(explanation.length() - 2);
+        return explanation.append(". ")
+                .append(band(score)).append(" similarity, ")
+                .append(fieldSummary(matches, fields)).append('.')
+                .toString();
+    }
+
+    private static int appendField(StringBuilder explanation, String name, AddressSimilarity.Field field) {
+        explanation.append(name).append(field.exact() ? " matches, " : " differs, ");
+        return field.exact() ? 1 : 0;
+    }
+
+    private String band(double score) {
+        if (score >= highSimilarity) {
+            return "High";
+        }
+        return score >= mediumSimilarity ? "Medium" : "Low";
+    }
+
+    private static String fieldSummary(int matches, int fields) {
+        if (matches == fields) {
+            return "all fields match";
+        }
+        if (2 * matches > fields) {
+            return "most fields match";
+        }
+        return matches > 0 ? "most fields differ" : "all fields differ";
+    }
+}
@@ -0,0 +1,22 @@
+package io.crunch.ai.function.institute;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Memoizes the results of a tool method for the lifetime of a search conversation.
+ * <p>
+ * The tool method must declare a {@link dev.langchain4j.agent.tool.ToolMemoryId} parameter; repeated calls with the
+ * same memory id and equal arguments return the first result without executing the tool again.
+ *
+ * @see MemoizedToolInterceptor
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface MemoizedTool {
+}
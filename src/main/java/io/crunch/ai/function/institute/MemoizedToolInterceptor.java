@@ -0,0 +1,76 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import io.quarkus.logging.Log;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interceptor behind {@link MemoizedTool}.
+ * <p>
+ * Small models repeat tool calls with the same arguments even when the prompt forbids it. Each repeat would hit
+ * the database or recompute scores again; instead, the result of the first call is kept in the {@link ToolInvocationMemo}
+ * under the conversation's memory id and the tool arguments, and returned for every repeat.
+ * Failed calls are not memoized.
+ */
+@MemoizedTool
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class MemoizedToolInterceptor {
+
+    private static final Map<Method, Integer> MEMORY_ID_POSITIONS = new ConcurrentHashMap<>();
+
+    @Inject
+    ToolInvocationMemo memo;
+
+    @AroundInvoke
+    Object memoize(InvocationContext context) throws Exception {
+        var method = context.getMethod();
+        var position = MEMORY_ID_POSITIONS.computeIfAbsent(method, MemoizedToolInterceptor::memoryIdPosition);
+        var parameters = context.getParameters();
+        if (position < 0 || parameters[position] == null) {
+            return context.proceed();
+        }
+        var memoryId = parameters[position];
+        var tool = toolName(method);
+        List<Object> arguments = new ArrayList<>(parameters.length - 1);
+        for (int i = 0; i < parameters.length; i++) {
+            if (i != position) {
+                arguments.add(parameters[i]);
+            }
+        }
+        var memoized = memo.lookup(memoryId, tool, arguments);
+        if (memoized != null) {
+            return memoized.value();
+        }
+        var result = context.proceed();
+        memo.store(memoryId, tool, arguments, result);
+        return result;
+    }
+
+    private static int memoryIdPosition(Method method) {
+        var parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isAnnotationPresent(ToolMemoryId.class)) {
+                return i;
+            }
+        }
+        Log.warn("Tool method " + method + " is @MemoizedTool but has no @ToolMemoryId parameter, it is not memoized");
+        return -1;
+    }
+
+    private static String toolName(Method method) {
+        var tool = method.getAnnotation(Tool.class);
+        return tool != null && !tool.name().isEmpty() ? tool.name() : method.getName();
+    }
+}
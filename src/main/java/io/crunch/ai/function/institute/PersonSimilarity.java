@@ -0,0 +1,29 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.model.output.structured.Description;
+
+/**
+ * Field-by-field similarity of a candidate person to the searched person.
+ * <p>
+ * Candidates of a fuzzy search, found by the trigram or the phonetic blocking index, may differ from the searched
+ * person in the name or the birth date. Every field is compared on its own like an address field, with the
+ * Jaro-Winkler similarity of the trimmed, upper-cased values; {@code score} is the mean of the field similarities
+ * and is {@code 1.0} exactly when all fields match.
+ *
+ * @param firstName the similarity of the first names.
+ * @param lastName  the similarity of the last names.
+ * @param birthDate the similarity of the birth dates.
+ * @param score     the mean of the field similarities, in {@code [0.0, 1.0]}.
+ */
+@Description("The field-by-field similarity of a candidate person to the searched person")
+public record PersonSimilarity(AddressSimilarity.Field firstName, AddressSimilarity.Field lastName, AddressSimilarity.Field birthDate, double score) {
+
+    /**
+     * Tells whether the candidate is the searched person.
+     *
+     * @return {@code true} if all fields match exactly.
+     */
+    public boolean exact() {
+        return firstName.exact() && lastName.exact() && birthDate.exact();
+    }
+}
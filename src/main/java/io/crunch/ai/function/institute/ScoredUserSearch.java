@@ -0,0 +1,25 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.statistic.UserSearchResult;
+
+import java.util.List;
+
+/**
+ * Result of the {@code searchAndScoreUser} tool.
+ * <p>
+ * For a {@code SIMILARMATCH}, the candidates of {@code result} already carry their similarity scores, and
+ * {@code original} holds the address of the queried institute user that the candidates were compared with.
+ * {@code similarities} holds the field-by-field comparison of every candidate address with {@code original},
+ * in the order of the candidates, and {@code personSimilarities} the comparison of every candidate person with the
+ * searched person. The score of a candidate is the product of its {@link AddressSimilarity#score()} and its
+ * {@link PersonSimilarity#score()}, which is {@code 1.0} unless the candidate was found by the fuzzy search.
+ * For {@code NONEMATCH} and {@code EXACTMATCH}, {@code original} is {@code null} and both lists are empty.
+ *
+ * @param result             the statistic search result, with scores filled in for similar matches.
+ * @param original           the baseline address used for scoring, or {@code null} if no scoring was needed.
+ * @param similarities       the address field similarities of the candidates, in candidate order.
+ * @param personSimilarities the person field similarities of the candidates, in candidate order.
+ */
+public record ScoredUserSearch(UserSearchResult result, Address original, List<AddressSimilarity> similarities,
+                               List<PersonSimilarity> personSimilarities) { }
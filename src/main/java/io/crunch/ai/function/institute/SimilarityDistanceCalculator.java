@@ -1,111 +1,145 @@
 package io.crunch.ai.function.institute;
 
-import dev.langchain4j.agent.tool.P;
-import dev.langchain4j.agent.tool.Tool;
 import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
 
 /**
- * {@code SimilarityDistanceCalculator} provides functionality for computing similarity scores
- * between two {@link Address} objects using the Jaro-Winkler distance algorithm.
+ * {@code SimilarityDistanceCalculator} compares the addresses and persons of candidate users with those of the
+ * searched user, field by field, using the Jaro-Winkler similarity.
  *
- * <h2>Integration with LLMs</h2>
+ * <h2>Usage</h2>
  * <p>
- * The {@link #jaroWinklerSimilarity(Address, Address)} method is exposed as a tool via
- * the {@link Tool} annotation, making it available for invocation by Large Language Models (LLMs)
- * through the LangChain4j function-calling mechanism.
+ * The calculator is a plain Java API; the assistant does not call it directly. It only sees
+ * {@link UserMatchScoringService#searchAndScoreUser}, which scores all candidates of a search in one call.
+ * </p>
+ * <p>
+ * {@link #addressSimilarities(Address, List)} compares the five address fields of every candidate one by one and
+ * returns an {@link AddressSimilarity} with the similarity and exact-match flag of every field, plus a weighted
+ * aggregate score.
+ * </p>
+ * <p>
+ * {@link #personSimilarities(Person, List)} compares the names and birth dates of the candidates with the searched
+ * person in the same way, for the candidates of a fuzzy search that are not the searched person.
  * </p>
- *
- * <h3>Key Rules for Usage</h3>
- * <ul>
- *   <li>The first parameter must always be the user's own address obtained from {@code getUserAddress(Person)}.</li>
- *   <li>The second parameter must always be a candidate address from search results.</li>
- *   <li>Each (original, candidate) pair must be compared only once; repeated comparisons are not allowed.</li>
- *   <li>Parameters must be passed as proper JSON objects, not stringified blobs.</li>
- *   <li>The output is a numeric similarity score in the range [0.0, 1.0], where {@code 1.0} indicates exact equality.</li>
- * </ul>
  *
  * <h2>Algorithm</h2>
  * <p>
  * The Jaro-Winkler similarity algorithm measures how similar two strings are.
- * The inputs are normalized (converted to uppercase, whitespace trimmed, concatenated fields)
- * before computing the similarity score.
+ * Every field is normalized (converted to uppercase, whitespace trimmed) before computing its similarity score.
  * </p>
+ * <p>
+ * Scoring is delegated to the {@link JaroWinklerScorer}, which normalizes and compares the fields in reusable
+ * buffers and gives the same scores as commons-text {@code JaroWinklerSimilarity} on the normalized strings.
+ * </p>
+ *
+ * <h3>Field weights</h3>
+ * The aggregate score of an {@link AddressSimilarity} is the weighted mean of the field similarities. The weights
+ * are configured with {@code user-search.similarity.weight.country}, {@code .city}, {@code .zip-code},
+ * {@code .street}, and {@code .house-number}; they must not be negative and are normalized to a sum of {@code 1}.
  *
- * @see org.apache.commons.text.similarity.JaroWinklerSimilarity
+ * @see JaroWinklerScorer
  */
 @ApplicationScoped
 public class SimilarityDistanceCalculator {
 
-    private static final JaroWinklerSimilarity SIMILARITY = new JaroWinklerSimilarity();
+    /**
+     * Batch size from which candidates are scored in parallel; below it the fork/join overhead outweighs the gain.
+     */
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    /**
+     * Stands in for a missing address; all of its fields are treated as empty.
+     */
+    private static final Address NO_ADDRESS = new Address(null, null, null, null, null);
+
+    private final double countryWeight;
+
+    private final double cityWeight;
+
+    private final double zipCodeWeight;
 
-    @Tool(
-        name = "jaroWinklerSimilarity",
-        value = """
-        Use this tool to compare two Address objects.
-           The FIRST parameter MUST ALWAYS be the result of the getUserAddress(Person), called 'original'.
-           The SECOND parameter MUST ALWAYS be the candidate address from the search result, called 'similar'.
-           RULES:
-           - Each (original, similar) pair must be compared ONLY ONCE.
-           - Do not repeat comparisons for the same addresses.
-           - Always provide it as a proper JSON object.
-           - Never pass it as a stringified blob.
-           Input: requires two separate Address objects:
-             - 'original' (Address) → the address returned by getUserAddress(Person).
-             - 'similar' (Address) → the address of a candidate user from the search results.
-           Output: a numeric similarity score between 0.0 and 1.0, where 1.0 means identical.
-       """
-    )
-    public double jaroWinklerSimilarity(@P(value = "The user's address", required = true) Address original,
-                                        @P(value = "The address of a candidate user from the search results that should be compared", required = true) Address similar) {
-        Log.info("Calculating the similarity between original address: " + original + " and similar address: " + similar);
-        String normalized1 = normalize(original);
-        String normalized2 = normalize(similar);
-        var score = SIMILARITY.apply(normalized1, normalized2);
-        Log.info("Calculated similarity score: " + score);
-        return score;
+    private final double streetWeight;
+
+    private final double houseNumberWeight;
+
+    public SimilarityDistanceCalculator(@ConfigProperty(name = "user-search.similarity.weight.country", defaultValue = "0.05") double countryWeight,
+                                        @ConfigProperty(name = "user-search.similarity.weight.city", defaultValue = "0.2") double cityWeight,
+                                        @ConfigProperty(name = "user-search.similarity.weight.zip-code", defaultValue = "0.25") double zipCodeWeight,
+                                        @ConfigProperty(name = "user-search.similarity.weight.street", defaultValue = "0.35") double streetWeight,
+                                        @ConfigProperty(name = "user-search.similarity.weight.house-number", defaultValue = "0.15") double houseNumberWeight) {
+        if (countryWeight < 0 || cityWeight < 0 || zipCodeWeight < 0 || streetWeight < 0 || houseNumberWeight < 0) {
+            throw new IllegalArgumentException("Address field weights must not be negative");
+        }
+        var total = countryWeight + cityWeight + zipCodeWeight + streetWeight + houseNumberWeight;
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one address field weight must be positive");
+        }
+        this.countryWeight = countryWeight / total;
+        this.cityWeight = cityWeight / total;
+        this.zipCodeWeight = zipCodeWeight / total;
+        this.streetWeight = streetWeight / total;
+        this.houseNumberWeight = houseNumberWeight / total;
     }
 
     /**
-     * Normalizes an {@link Address} into a concatenated uppercase string representation.
-     * <p>
-     * Fields included in normalization:
-     * <ul>
-     *   <li>Country</li>
-     *   <li>City</li>
-     *   <li>Zip code</li>
-     *   <li>Street</li>
-     *   <li>House number</li>
-     * </ul>
-     * </p>
-     * Null values are treated as empty strings.
+     * Compares all candidate addresses field by field with the original address.
      *
-     * @param address the {@link Address} to normalize, may be {@code null}.
-     * @return a normalized, uppercase concatenation of address fields, or an empty string if the address is null.
+     * @param original   the user's address.
+     * @param candidates the addresses of the candidate users.
+     * @return the field similarities, in candidate order.
      */
-    private String normalize(Address address) {
-        if (address == null) {
-            return "";
-        }
-        return String.join("",
-                toUpper(address.country()),
-                toUpper(address.city()),
-                toUpper(address.zipCode()),
-                toUpper(address.street()),
-                toUpper(address.houseNumber())
-        ).trim();
+    public List<AddressSimilarity> addressSimilarities(Address original, List<Address> candidates) {
+        Log.info("Calculating the field similarity between original address: " + original + " and " + candidates.size() + " candidate address(es)");
+        var similarities = new AddressSimilarity[candidates.size()];
+        JaroWinklerScorer.chunks(candidates.size(), candidates.size() >= PARALLEL_THRESHOLD).forEach(chunk -> {
+            var workspace = new JaroWinklerScorer.Workspace();
+            for (int i = chunk * JaroWinklerScorer.CHUNK_SIZE, end = Math.min(i + JaroWinklerScorer.CHUNK_SIZE, similarities.length); i < end; i++) {
+                similarities[i] = fieldSimilarity(original, candidates.get(i), workspace);
+            }
+        });
+        return List.of(similarities);
     }
 
     /**
-     * Converts a string value to uppercase and trims whitespace.
-     * Null values are safely converted to an empty string.
+     * Compares all candidate persons field by field with the searched person.
      *
-     * @param value the input string, may be {@code null}.
-     * @return the uppercase and trimmed string, or an empty string if the input is null.
+     * @param original   the searched person.
+     * @param candidates the persons of the candidate users.
+     * @return the field similarities, in candidate order.
      */
-    private String toUpper(String value) {
-        return value == null ? "" : value.trim().toUpperCase();
+    public List<PersonSimilarity> personSimilarities(Person original, List<Person> candidates) {
+        var workspace = new JaroWinklerScorer.Workspace();
+        return candidates.stream().map(candidate -> {
+            var firstName = field(original.firstName(), candidate.firstName(), workspace);
+            var lastName = field(original.lastName(), candidate.lastName(), workspace);
+            var birthDate = field(original.birthDate(), candidate.birthDate(), workspace);
+            var score = (firstName.similarity() + lastName.similarity() + birthDate.similarity()) / 3;
+            return new PersonSimilarity(firstName, lastName, birthDate, score);
+        }).toList();
+    }
+
+    private AddressSimilarity fieldSimilarity(Address original, Address similar, JaroWinklerScorer.Workspace workspace) {
+        var base = original == null ? NO_ADDRESS : original;
+        var other = similar == null ? NO_ADDRESS : similar;
+        var country = field(base.country(), other.country(), workspace);
+        var city = field(base.city(), other.city(), workspace);
+        var zipCode = field(base.zipCode(), other.zipCode(), workspace);
+        var street = field(base.street(), other.street(), workspace);
+        var houseNumber = field(base.houseNumber(), other.houseNumber(), workspace);
+        var score = countryWeight * country.similarity()
+                + cityWeight * city.similarity()
+                + zipCodeWeight * zipCode.similarity()
+                + streetWeight * street.similarity()
+                + houseNumberWeight * houseNumber.similarity();
+        return new AddressSimilarity(country, city, zipCode, street, houseNumber, Math.min(score, 1d));
+    }
+
+    private static AddressSimilarity.Field field(String original, String similar, JaroWinklerScorer.Workspace workspace) {
+        return AddressSimilarity.Field.of(workspace.similarity(original, similar));
     }
 }
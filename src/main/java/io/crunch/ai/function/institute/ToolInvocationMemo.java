@@ -0,0 +1,67 @@
+package io.crunch.ai.function.institute;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-conversation store of tool results used by {@link MemoizedToolInterceptor}.
+ * <p>
+ * Results are kept per memory id and tool arguments. The results of a conversation are dropped when its chat memory
+ * session ends ({@link ChatSessionClosed}), so the store only holds the conversations in flight.
+ * <p>
+ * {@code user.search.tool.duplicate.calls}, tagged by {@code tool}, counts the repeated calls answered from the
+ * store, i.e. how often the model loops.
+ */
+@ApplicationScoped
+public class ToolInvocationMemo {
+
+    /**
+     * Holds a memoized result, which may be {@code null}.
+     */
+    record Memo(Object value) { }
+
+    private final Map<Object, Map<List<Object>, Memo>> memosBySession = new ConcurrentHashMap<>();
+
+    private final MeterRegistry registry;
+
+    public ToolInvocationMemo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns the memoized result of a previous call, and counts the call as a duplicate.
+     *
+     * @param memoryId  the memory id of the conversation.
+     * @param tool      the tool name.
+     * @param arguments the tool arguments, without the memory id.
+     * @return the memoized result, or {@code null} if the tool has not been called with these arguments yet.
+     */
+    Memo lookup(Object memoryId, String tool, List<Object> arguments) {
+        var memos = memosBySession.get(memoryId);
+        var memo = memos == null ? null : memos.get(key(tool, arguments));
+        if (memo != null) {
+            Log.info("Repeated call of tool " + tool + " with the same arguments, returning the memoized result");
+            registry.counter("user.search.tool.duplicate.calls", "tool", tool).increment();
+        }
+        return memo;
+    }
+
+    void store(Object memoryId, String tool, List<Object> arguments, Object result) {
+        memosBySession.computeIfAbsent(memoryId, id -> new ConcurrentHashMap<>())
+                .putIfAbsent(key(tool, arguments), new Memo(result));
+    }
+
+    void onSessionClosed(@Observes ChatSessionClosed event) {
+        memosBySession.remove(event.memoryId());
+    }
+
+    private static List<Object> key(String tool, List<Object> arguments) {
+        return List.of(tool, arguments);
+    }
+}
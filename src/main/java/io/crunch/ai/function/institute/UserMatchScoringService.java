@@ -0,0 +1,120 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.statistic.StatisticUserService;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+/**
+ * Runs the whole search-and-score workflow in Java and exposes it as a single tool.
+ * <p>
+ * Without this tool, a {@code SIMILARMATCH} costs the model one turn for {@code searchUser}, one for
+ * {@code getUserAddress}, and one {@code jaroWinklerSimilarity} turn per candidate. {@code searchAndScoreUser}
+ * performs the same steps through {@link StatisticUserService}, {@link InstituteUserService}, and
+ * {@link SimilarityDistanceCalculator}, so a request needs exactly one tool call regardless of the number of candidates.
+ * All candidates are compared field by field with a single {@link SimilarityDistanceCalculator#addressSimilarities} batch;
+ * a candidate's score is the weighted aggregate of its field similarities, and the field comparison is returned
+ * with the result so the model can explain it without comparing the addresses itself.
+ * <p>
+ * Candidates of the fuzzy search may be other persons than the searched one, e.g. "Thomas Meyer" for "Tomas Meier".
+ * Their names and birth dates are compared as well ({@link SimilarityDistanceCalculator#personSimilarities}), and
+ * the address score is multiplied by the {@link PersonSimilarity#score()}, so an identical address of another
+ * person never scores {@code 1.0}.
+ * <p>
+ * Every candidate also gets its explanation from the {@link MatchExplanationGenerator}, so the returned result is
+ * complete without the model; {@link #score(Person, UserSearchResult)} offers the same scoring to Java callers.
+ * <p>
+ * The tool is {@link MemoizedTool}: if the model repeats the call within the same conversation, the first result is
+ * returned again instead of querying the database and scoring once more.
+ *
+ * @see ScoredUserSearch
+ */
+@ApplicationScoped
+public class UserMatchScoringService {
+
+    private final StatisticUserService statisticUserService;
+
+    private final InstituteUserService instituteUserService;
+
+    private final SimilarityDistanceCalculator similarityDistanceCalculator;
+
+    private final MatchExplanationGenerator explanationGenerator;
+
+    public UserMatchScoringService(StatisticUserService statisticUserService,
+                                   InstituteUserService instituteUserService,
+                                   SimilarityDistanceCalculator similarityDistanceCalculator,
+                                   MatchExplanationGenerator explanationGenerator) {
+        this.statisticUserService = statisticUserService;
+        this.instituteUserService = instituteUserService;
+        this.similarityDistanceCalculator = similarityDistanceCalculator;
+        this.explanationGenerator = explanationGenerator;
+    }
+
+    @Tool(name = "searchAndScoreUser", value = """
+        THIS IS THE ONLY TOOL. Call it EXACTLY ONCE at the start of processing.
+
+        INPUT:
+        - firstName: MUST be copied exactly as given
+        - lastName: MUST be copied exactly as given
+        - birthDate: MUST be copied exactly as given
+        - These fields MUST NEVER be invented, substituted, normalized, or corrected.
+
+        Searches the user in the statistic database and, if several similar users are found,
+        scores every candidate address against the ORIGINAL user's address.
+
+        OUTPUT: a JSON object with two fields:
+        - "result": the search result, a JSON object with "type" NONEMATCH | EXACTMATCH | SIMILARMATCH.
+          For SIMILARMATCH, every candidate in "users" already has its final similarity "score" and "explanation".
+        - "original": the ORIGINAL user's address used as the baseline for the scores (null unless SIMILARMATCH).
+          NEVER use it as a candidate address.
+        - "similarities": for SIMILARMATCH, one entry per candidate, in the order of "users": the comparison of
+          country, city, zipCode, street, and houseNumber with "original", each with "similarity" and "exact"
+          (true if the field matches), and the overall "score". Empty otherwise.
+        - "personSimilarities": for SIMILARMATCH, one entry per candidate, in the order of "users": the comparison of
+          firstName, lastName, and birthDate with the searched person, and their "score". A candidate's final score
+          is the product of both scores. Empty otherwise.
+        """)
+    @MemoizedTool
+    public ScoredUserSearch searchAndScoreUser(@ToolMemoryId String memoryId,
+                                               @P(value = "The user's first name", required = true) String firstName,
+                                               @P(value = "The user's last name", required = true) String lastName,
+                                               @P(value = "The user's birth date", required = true) String birthDate) {
+        var result = statisticUserService.searchUser(firstName, lastName, birthDate);
+        return score(new Person(firstName, lastName, birthDate), result);
+    }
+
+    /**
+     * Scores and explains the candidates of a search result against the address of the searched person.
+     *
+     * @param person the searched person.
+     * @param result the statistic search result for the person.
+     * @return the result with scores and explanations filled in for similar matches, and the field comparisons.
+     */
+    public ScoredUserSearch score(Person person, UserSearchResult result) {
+        if (!result.needsSimilarityScoring()) {
+            return new ScoredUserSearch(result, null, List.of(), List.of());
+        }
+        var original = instituteUserService.getUserAddress(person);
+        var similarities = similarityDistanceCalculator.addressSimilarities(original, result.candidateAddresses());
+        var personSimilarities = similarityDistanceCalculator.personSimilarities(person, result.candidatePersons());
+        var scored = result.withScores(
+                i -> score(personSimilarities.get(i), similarities.get(i)),
+                i -> explanationGenerator.explain(score(personSimilarities.get(i), similarities.get(i)), personSimilarities.get(i), similarities.get(i)));
+        Log.info("Scored similar matches: " + scored);
+        return new ScoredUserSearch(scored, original, similarities, personSimilarities);
+    }
+
+    /**
+     * Scores a candidate: the address similarity, scaled down by the person similarity for candidates of the fuzzy
+     * search that are not the searched person.
+     */
+    private static double score(PersonSimilarity person, AddressSimilarity address) {
+        return person.score() * address.score();
+    }
+}
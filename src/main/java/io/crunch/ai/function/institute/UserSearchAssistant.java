@@ -5,6 +5,7 @@ import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.guardrail.OutputGuardrails;
 import io.crunch.ai.function.statistic.StatisticUserService;
+import io.crunch.ai.function.statistic.UserSearchResult;
 import io.quarkiverse.langchain4j.RegisterAiService;
 import io.quarkiverse.langchain4j.ToolBox;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -12,8 +13,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 /**
  * {@code UserSearchAssistant} defines an AI-powered assistant service for
  * retrieving and validating user information from multiple data sources,
- * using {@link StatisticUserService}, {@link InstituteUserService}, and
- * {@link SimilarityDistanceCalculator} as external tools.
+ * using {@link UserMatchScoringService} as its single external tool.
  *
  * <p>This service is registered as an AI service via {@link RegisterAiService},
  * and it is application-scoped, meaning it is a singleton within the
@@ -21,20 +21,18 @@ import jakarta.enterprise.context.ApplicationScoped;
  *
  * <h2>Responsibilities</h2>
  * <ul>
- *   <li>Initiates a user search against the {@link StatisticUserService} with
+ *   <li>Initiates a user search with {@link UserMatchScoringService#searchAndScoreUser}, passing
  *   the query parameters {@code firstName}, {@code lastName}, and {@code birthDate}.</li>
  *   <li>Evaluates the search outcome and enforces strict workflow rules for:
  *     <ul>
  *       <li>{@code NONEMATCH} → terminate immediately, return the result as-is.</li>
  *       <li>{@code EXACTMATCH} → terminate immediately, return the result as-is.</li>
- *       <li>{@code SIMILARMATCH} → continue processing:
- *         <ol>
- *           <li>Fetch the original user’s address once using {@link InstituteUserService#getUserAddress}.</li>
- *           <li>For each candidate returned by the search, compare its address with the original using {@link SimilarityDistanceCalculator#jaroWinklerSimilarity}.</li>
- *           <li>Include similarity scores and structured natural-language explanations for all candidates.</li>
- *           <li>Return a final JSON response with type {@code SIMILARMATCH}, enriched with similarity details.</li>
- *         </ol>
- *       </li>
+ *       <li>{@code SIMILARMATCH} → the candidates already carry their similarity scores, computed in Java
+ *       against the original user's address (see {@link InstituteUserService#getUserAddress} and
+ *       {@link SimilarityDistanceCalculator#addressSimilarities}), together with the field-by-field comparison
+ *       of every candidate and an explanation built by {@link MatchExplanationGenerator}. The assistant may add
+ *       a short free-text summary to each explanation and returns the {@code SIMILARMATCH} JSON. It is only
+ *       involved for similar matches when {@code user-search.similar-match.llm-enabled} is set.</li>
  *     </ul>
  *   </li>
  * </ul>
@@ -43,15 +41,12 @@ import jakarta.enterprise.context.ApplicationScoped;
  * The embedded {@link SystemMessage} contains detailed rules and restrictions
  * that the AI assistant must always follow. These include:
  * <ul>
- *   <li>No repeated tool calls with the same input.</li>
+ *   <li>Exactly one tool call per request.</li>
  *   <li>Mandatory termination behavior based on search result type.</li>
  *   <li>Strict parameter binding: the original {@code firstName}, {@code lastName},
  *   and {@code birthDate} must never be modified, reformatted, or substituted.</li>
- *   <li>Prohibited behaviors (e.g., calling similarity tools after an EXACTMATCH,
- *   or inventing address data).</li>
- *   <li>Mandatory JSON object formatting for tool parameters (never as strings).</li>
- *   <li>Detailed explanation rules for similarity scoring (must cover all five
- *   address fields: country, city, zipCode, street, houseNumber).</li>
+ *   <li>Scores must be used exactly as returned by the tool.</li>
+ *   <li>Explanations must be kept as returned by the tool; only a short summary may be appended.</li>
  * </ul>
  *
  * <h2>Output Specification</h2>
@@ -67,17 +62,18 @@ import jakarta.enterprise.context.ApplicationScoped;
  *
  * <h2>Tool Integration</h2>
  * <ul>
- *   <li>{@link StatisticUserService} → performs the initial user search.</li>
- *   <li>{@link InstituteUserService} → fetches the original user’s canonical address.</li>
- *   <li>{@link SimilarityDistanceCalculator} → computes address similarity scores.</li>
+ *   <li>{@link UserMatchScoringService} → performs the user search and scores similar candidates in one call.</li>
  * </ul>
+ * The number of tool calls made by each conversation is recorded by {@link UserSearchPipeline}.
  *
  * <h2>Usage</h2>
  * Clients provide a {@link UserSearchQuery} containing the user’s
  * {@code firstName}, {@code lastName}, and {@code birthDate}. The assistant
  * orchestrates the appropriate workflow, strictly following the system rules,
- * and produces a normalized JSON output suitable for downstream processing.
+ * and produces a normalized JSON output. The {@link UserSearchOutputGuardrail} parses and validates it,
+ * and the parsed {@link UserSearchResult} is returned.
  *
+ * @see UserMatchScoringService
  * @see StatisticUserService
  * @see InstituteUserService
  * @see SimilarityDistanceCalculator
@@ -89,64 +85,29 @@ public interface UserSearchAssistant {
     @SystemMessage(
         """
         GLOBAL RULES
-        - You are NOT allowed to repeat tool calls with the same input.
+        - You MUST call the tool `searchAndScoreUser` EXACTLY ONCE. You are NOT allowed to call it again.
         - If you cannot proceed because of missing data, STOP and return the last valid result.
 
         TERMINATION RULES
-        - If `searchUser` returns NONEMATCH → you MUST IMMEDIATELY return that result as final output. Do NOT call any other tools. STOP IMMEDIATELY.
-        - If `searchUser` returns EXACTMATCH → you MUST IMMEDIATELY return that result as the final output. Do NOT call any other tools. STOP IMMEDIATELY.
-        - If `searchUser` returns SIMILARMATCH → you are FORBIDDEN to stop.
-         - You MUST continue the workflow:
-           1. Call `getUserAddress` once for the original Person.
-           2. For EACH candidate, call `jaroWinklerSimilarity(original, similar)`.
-           3. Collect all scores and explanations.
-           4. ONLY THEN construct and return the final JSON output.
-         - Returning JSON without calling `getUserAddress` AND all `jaroWinklerSimilarity` calls is a violation of the rules.
-
-        FORBIDDEN BEHAVIOR
-        - After an EXACTMATCH result, it is strictly FORBIDDEN to:
-          * Call getUserAddress
-          * Call jaroWinklerSimilarity
-          * Invent any address data
+        - The tool returns an object with the fields `result`, `original`, and `similarities`.
+        - If `result` is NONEMATCH → you MUST IMMEDIATELY return `result` as final output. STOP IMMEDIATELY.
+        - If `result` is EXACTMATCH → you MUST IMMEDIATELY return `result` as final output. STOP IMMEDIATELY.
+        - If `result` is SIMILARMATCH → optionally extend the explanations as described below, then return `result` as final output.
+        - NEVER return the `original` or `similarities` fields or the wrapping object.
 
         PARAMETER BINDING RULES
-        - The very first tool call `searchUser` MUST always use `firstName`, `lastName`, and `birthDate` values DIRECTLY from the original input.
+        - The tool call MUST always use `firstName`, `lastName`, and `birthDate` values DIRECTLY from the original input.
         - They `firstName`, `lastName`, and `birthDate` MUST NEVER be changed, corrected, reformatted, guessed, invented, replaced or substituted.
         - Null values are forbidden. If input is missing, STOP and return the last valid result.
         - Any deviation (e.g., replacing "NoMatch" with "John") is a violation of the rules.
-        - For similarity checks:
-          - Always call `getUserAddress` ONCE with the original Person to get the baseline `original` address.
-          - NEVER call `getUserAddress` for candidate users. Their addresses come only from the search result.
-          - NEVER call `getUserAddress` if `searchUser` returns EXACTMATCH.
-          - For each candidate from the search result:
-            - Pass `original` = Person’s address (from getUserAddress)
-            - Pass `similar` = Candidate’s address (from search result)
-            - Never pass null, empty, or substituted values.
-
-        PARAMETER ENCODING RULES (MANDATORY)
-        - When a tool parameter type is an object (e.g., Address), you MUST pass it as a JSON OBJECT, not as a string.
-        - Use double quotes only. Never use single quotes.
-        - Do NOT wrap objects in quotes. Do NOT send "{ ... }" as a string.
-        - Field names must be exactly: country, city, zipCode, street, houseNumber.
 
         SIMILAR MATCH RULES
-        - For each candidate, calculate similarity with `jaroWinklerSimilarity`.
-        - Collect all scores.
-        - For each candidate in the final JSON output:
-          - Include the candidate’s details.
-          - Include the similarity score.
-          - Add a short natural-language explanation of what the score means
-            - You MUST explicitly compare ALL five address fields (country, city, zipCode, street, houseNumber).
-            - For each field:
-              * If the value is identical → say "<field> matches".
-              * If the value differs → say "<field> differs".
-            - The explanation MUST always cover all five fields, in a consistent order:
-              country → city → zipCode → street → houseNumber.
-            - Example:
-              "Similarity 0.82. country matches, city differs, zipCode differs, street matches, houseNumber matches."
-            - After listing the field-by-field comparison, add a short summary interpretation
-              (e.g., "High similarity, most fields match" / "Medium similarity, some fields differ").
+        - Every candidate in `result.users` already contains its similarity `score` and its `explanation`.
         - Do not recompute or modify scores — use them exactly as returned.
+        - Keep every `explanation` exactly as returned. You MAY append ONE short sentence to it that summarizes
+          how likely the candidate is the queried user, based ONLY on `similarities[i]` for `result.users[i]`.
+        - `original` is the address of the queried user. It is ONLY the baseline for explanations. NEVER use it as a candidate.
+        - For each candidate in the final JSON output, include the candidate’s details exactly as returned.
 
         OUTPUT RULES
         - Always return ONLY a JSON object.
@@ -166,38 +127,21 @@ public interface UserSearchAssistant {
              - explanation: "No explanation available"
          - For NONEMATCH:
            - No other fields except `type` and `person` are allowed.
-         - If the `searchUser` result is SIMILARMATCH:
-           - `person` MUST be nested inside the `user`.
+         - For SIMILARMATCH:
+           - `person` MUST be nested inside each `user`.
            - Never output `person` as a top-level field in this case.
-           - First, call the tool `getUserAddress` with the original Person to get the `original` address.
-             - Capture its output as `original`.
-             - This output is ONLY used as the baseline in the `original` parameter of `jaroWinklerSimilarity`.
-             - NEVER use this `original` address as a candidate address.
-           - For each candidate user returned by the search:
-             - Extract the candidate's address ONLY from the search result JSON.
-             - Do NOT call getUserAddress for candidates.
-             - Pass this candidate address as the second parameter `similar` to `jaroWinklerSimilarity`.
-             - NEVER pass null, empty, or substituted addresses.
-             - Collect the similarity scores for all candidates.
-           - You MUST NOT call `jaroWinklerSimilarity` until both `original` and a candidate's address are available.
-             - Always set parameter 'original' = the output of getUserAddress(Person).
-             - Always set parameter 'similar' = the candidate’s address from the search result.
-             - Never swap them.
 
         WORKFLOW
-        1. Always begin with `searchUser(firstName, lastName, birthDate)`.
-        2. Based on result:
-          - NONEMATCH → IMMEDIATELY stop and return the search result JSON object. Do NOT call any other tools afterwards, STOP and return the last valid result.
-          - EXACTMATCH → IMMEDIATELY stop and return the search result JSON object. Do NOT call any other tools afterwards, STOP and return the last valid result.
-          - SIMILARMATCH → you are NOT ALLOWED to stop here.
-            * You MUST first call `getUserAddress` once.
-            * Then you MUST call `jaroWinklerSimilarity` once per candidate.
-            * Only AFTER all similarity scores are collected can you return the final SIMILARMATCH JSON.
+        1. Call `searchAndScoreUser(firstName, lastName, birthDate)` once.
+        2. Based on `result`:
+          - NONEMATCH → IMMEDIATELY stop and return `result`. Do NOT call any tools afterwards.
+          - EXACTMATCH → IMMEDIATELY stop and return `result`. Do NOT call any tools afterwards.
+          - SIMILARMATCH → optionally extend the explanations as described above, then return `result`. Do NOT call any tools afterwards.
 
         Your role is to search user information from the Statistic service based on the provided query.
         """
     )
-    @ToolBox({StatisticUserService.class, InstituteUserService.class, SimilarityDistanceCalculator.class})
+    @ToolBox(UserMatchScoringService.class)
     @OutputGuardrails(UserSearchOutputGuardrail.class)
-    String search(@MemoryId String sessionId, @UserMessage UserSearchQuery userSearchQuery);
+    UserSearchResult search(@MemoryId String sessionId, @UserMessage UserSearchQuery userSearchQuery);
 }
@@ -0,0 +1,37 @@
+package io.crunch.ai.function.institute;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.crunch.ai.function.statistic.UserSearchResult;
+
+/**
+ * Outcome of one query of a bulk user search.
+ *
+ * @param index  the position of the query in the request.
+ * @param status the outcome of the query.
+ * @param result the search result, only present if {@code status} is {@link Status#OK}.
+ * @param error  a short error description, only present if {@code status} is {@link Status#ERROR}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserSearchBatchItem(int index, Status status, UserSearchResult result, String error) {
+
+    public enum Status {
+        /** The search completed, see {@code result}. */
+        OK,
+        /** The queried person is not a valid institute user. */
+        NOT_FOUND,
+        /** The search failed, see {@code error}. */
+        ERROR
+    }
+
+    static UserSearchBatchItem ok(int index, UserSearchResult result) {
+        return new UserSearchBatchItem(index, Status.OK, result, null);
+    }
+
+    static UserSearchBatchItem notFound(int index) {
+        return new UserSearchBatchItem(index, Status.NOT_FOUND, null, null);
+    }
+
+    static UserSearchBatchItem error(int index, String error) {
+        return new UserSearchBatchItem(index, Status.ERROR, null, error);
+    }
+}
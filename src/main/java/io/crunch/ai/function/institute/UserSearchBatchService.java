@@ -0,0 +1,139 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs many user searches concurrently.
+ * <p>
+ * Every query is executed on its own virtual thread with its own chat memory session, so a batch waiting on the
+ * model does not hold any platform threads. At most {@code user-search.batch.max-in-flight} queries of a batch run
+ * at the same time, and a thread is only started once a slot is free; keep it below the size of the datasource pool
+ * ({@code quarkus.datasource.jdbc.max-size}, 20 by default), since every running query borrows a connection. The
+ * number of concurrent assistant conversations is additionally bounded by {@link UserSearchPipeline}.
+ * A failing query does not fail the batch, it is reported with status {@link UserSearchBatchItem.Status#ERROR}.
+ *
+ * <h2>Metrics</h2>
+ * <ul>
+ *   <li>{@code user.search.batch.items} — processed queries, tagged by {@code status}.</li>
+ *   <li>{@code user.search.batch.duration} — time to complete a whole batch.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class UserSearchBatchService {
+
+    /**
+     * Maximum number of queries of one batch.
+     */
+    public static final int MAX_QUERIES = 1000;
+
+    private final UserSearchPipeline searchPipeline;
+
+    private final InstituteUserService instituteUserService;
+
+    private final ChatMemoryProvider chatMemoryProvider;
+
+    private final Map<UserSearchBatchItem.Status, Counter> processedItems = new EnumMap<>(UserSearchBatchItem.Status.class);
+
+    private final Timer batchDuration;
+
+    private final int maxInFlight;
+
+    public UserSearchBatchService(UserSearchPipeline searchPipeline,
+                                  InstituteUserService instituteUserService,
+                                  ChatMemoryProvider chatMemoryProvider,
+                                  @ConfigProperty(name = "user-search.batch.max-in-flight", defaultValue = "16") int maxInFlight,
+                                  MeterRegistry registry) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("The maximum number of in-flight batch queries must be positive");
+        }
+        this.searchPipeline = searchPipeline;
+        this.instituteUserService = instituteUserService;
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.maxInFlight = maxInFlight;
+        for (var status : UserSearchBatchItem.Status.values()) {
+            processedItems.put(status, Counter.builder("user.search.batch.items")
+                    .description("Number of processed bulk search queries by status")
+                    .tag("status", status.name())
+                    .register(registry));
+        }
+        this.batchDuration = Timer.builder("user.search.batch.duration")
+                .description("Time to complete a bulk user search")
+                .register(registry);
+    }
+
+    /**
+     * Searches all queries concurrently and waits for every one of them.
+     *
+     * @param queries the queries to search.
+     * @return one item per query, in the order of the queries.
+     */
+    public List<UserSearchBatchItem> search(List<UserSearchQuery> queries) {
+        Log.info("Received bulk user search request with " + queries.size() + " queries");
+        return batchDuration.record(() -> {
+            var futures = new ArrayList<Future<UserSearchBatchItem>>(queries.size());
+            var slots = new Semaphore(maxInFlight);
+            // Closing the executor waits for all queries to complete
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < queries.size(); i++) {
+                    var index = i;
+                    slots.acquireUninterruptibly();
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return searchItem(index, queries.get(index));
+                        } finally {
+                            slots.release();
+                        }
+                    }));
+                }
+            }
+            return futures.stream().map(Future::resultNow).toList();
+        });
+    }
+
+    /**
+     * Searches a single query of a batch; never throws.
+     * <p>
+     * The request context is activated because the query runs on a thread of its own, outside the HTTP request.
+     *
+     * @param index the position of the query in the batch.
+     * @param query the query to search.
+     * @return the outcome of the query.
+     */
+    @ActivateRequestContext
+    public UserSearchBatchItem searchItem(int index, UserSearchQuery query) {
+        var sessionId = UUID.randomUUID().toString();
+        UserSearchBatchItem item;
+        try {
+            if (instituteUserService.isValidInstituteUser(query.firstName(), query.lastName(), query.birthDate())) {
+                item = UserSearchBatchItem.ok(index, searchPipeline.search(sessionId, query));
+            } else {
+                item = UserSearchBatchItem.notFound(index);
+            }
+        } catch (Exception e) {
+            Log.error("Bulk user search failed for query " + index + ": " + query, e);
+            item = UserSearchBatchItem.error(index, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            Optional.ofNullable(chatMemoryProvider.get(sessionId)).ifPresent(ChatMemory::clear);
+        }
+        processedItems.get(item.status()).increment();
+        return item;
+    }
+}
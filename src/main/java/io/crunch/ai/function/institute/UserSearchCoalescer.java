@@ -0,0 +1,106 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent, identical assistant conversations into one.
+ * <p>
+ * The first caller for a {@link UserSearchQuery} runs the conversation; callers arriving with an equal query
+ * while it is in flight wait for it and receive the same {@link UserSearchResult}.
+ *
+ * <h2>Failure and cancellation</h2>
+ * <ul>
+ *   <li>If the conversation fails, every waiting caller receives the same failure.</li>
+ *   <li>If the running caller is cancelled or interrupted, the waiting callers are not failed: they retry,
+ *       and one of them runs the conversation again.</li>
+ *   <li>A waiting caller that is interrupted stops waiting; the running conversation is not affected.</li>
+ * </ul>
+ *
+ * <h2>Metrics</h2>
+ * {@code user.search.coalesced} counts the callers that were answered by another caller's conversation,
+ * i.e. the LLM conversations saved.
+ */
+@ApplicationScoped
+public class UserSearchCoalescer {
+
+    /**
+     * A search run by at most one caller per query, like the assistant conversation of {@link UserSearchPipeline#search}.
+     */
+    @FunctionalInterface
+    public interface Search {
+        UserSearchResult run();
+    }
+
+    private final Map<UserSearchQuery, CompletableFuture<UserSearchResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    public UserSearchCoalescer(MeterRegistry registry) {
+        this.coalesced = Counter.builder("user.search.coalesced")
+                .description("Number of user searches answered by a concurrent identical LLM conversation")
+                .register(registry);
+    }
+
+    /**
+     * Runs the search, unless a search for an equal query is already in flight, in which case its result is shared.
+     *
+     * @param query  the query identifying the search.
+     * @param search the search to run if none is in flight.
+     * @return the search result.
+     */
+    public UserSearchResult coalesce(UserSearchQuery query, Search search) {
+        while (true) {
+            var call = new CompletableFuture<UserSearchResult>();
+            var running = inFlight.putIfAbsent(query, call);
+            if (running == null) {
+                return run(query, call, search);
+            }
+            try {
+                var result = running.get();
+                coalesced.increment();
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for an identical user search");
+            } catch (CancellationException e) {
+                // The running caller was cancelled; try again, possibly running the search ourselves
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+    }
+
+    private UserSearchResult run(UserSearchQuery query, CompletableFuture<UserSearchResult> call, Search search) {
+        try {
+            var result = search.run();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (e instanceof CancellationException || Thread.currentThread().isInterrupted()) {
+                call.completeExceptionally(new CancellationException("User search cancelled"));
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(query, call);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        return switch (cause) {
+            case RuntimeException e -> e;
+            case Error e -> throw e;
+            default -> throw new IllegalStateException(cause);
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.statistic.StatisticUserService;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a {@link UserSearchQuery} to a {@link UserSearchResult}, involving the LLM only when it is needed.
+ * <p>
+ * Results are first looked up in the {@link UserSearchResultCache}; a cached result is returned without
+ * querying the database or the model, and every resolved result is cached, unless the cache was invalidated while
+ * it was resolved.
+ * <p>
+ * The {@code NONEMATCH} and {@code EXACTMATCH} outcomes are fully decided by
+ * {@link StatisticUserService#searchUser(String, String, String)}; the {@link UserSearchAssistant} would only
+ * echo them back. When the fast path is enabled ({@code user-search.fast-path.enabled}), those results are
+ * returned directly; otherwise the assistant answers them.
+ * <p>
+ * {@code SIMILARMATCH} candidates are scored and explained in Java by the {@link UserMatchScoringService}. Unless
+ * {@code user-search.similar-match.llm-enabled} is set, those results are returned directly; when it is set, the
+ * assistant receives the explained candidates and may add a short summary.
+ * <p>
+ * The two flags are independent. Only when the fast path is disabled and similar matches go to the model does
+ * every search go to the assistant without a statistic search of its own; in every other combination the
+ * statistic search decides which results need the model.
+ * <p>
+ * At most {@code user-search.llm.max-concurrency} assistant conversations run at the same time; further
+ * searches wait for a free slot in arrival order. This keeps bulk searches from flooding the model backend.
+ * Concurrent conversations for equal queries are merged into one by the {@link UserSearchCoalescer}.
+ * The assistant response is parsed once, by the output guardrail, which returns the parsed result to the pipeline.
+ *
+ * <h2>Metrics</h2>
+ * {@code user.search.resolutions} counts the resolved searches tagged by {@code path}:
+ * {@code fast} for {@code NONEMATCH} and {@code EXACTMATCH} results returned by the fast path, {@code java} for
+ * {@code SIMILARMATCH} results scored and explained in Java only, and {@code llm} for searches answered by the
+ * assistant. The fast-path hit ratio is {@code fast / (fast + java + llm)}.
+ * {@code user.search.tool.calls} records the number of tools executed by each assistant conversation,
+ * counted from the tool results kept in the session's chat memory.
+ * {@code user.search.llm.queue.wait} measures how long searches waited for a free assistant slot.
+ */
+@ApplicationScoped
+public class UserSearchPipeline {
+
+    private final StatisticUserService statisticUserService;
+
+    private final UserSearchAssistant searchAssistant;
+
+    private final ChatMemoryProvider chatMemoryProvider;
+
+    private final UserSearchResultCache resultCache;
+
+    private final UserSearchCoalescer coalescer;
+
+    private final UserMatchScoringService scoringService;
+
+    private final boolean fastPathEnabled;
+
+    private final boolean similarMatchLlmEnabled;
+
+    private final Semaphore llmPermits;
+
+    private final Counter fastPathResolutions;
+
+    private final Counter javaScoredResolutions;
+
+    private final Counter llmResolutions;
+
+    private final DistributionSummary toolCalls;
+
+    private final Timer llmQueueWait;
+
+    public UserSearchPipeline(StatisticUserService statisticUserService,
+                              UserSearchAssistant searchAssistant,
+                              ChatMemoryProvider chatMemoryProvider,
+                              UserSearchResultCache resultCache,
+                              UserSearchCoalescer coalescer,
+                              UserMatchScoringService scoringService,
+                              @ConfigProperty(name = "user-search.fast-path.enabled", defaultValue = "true") boolean fastPathEnabled,
+                              @ConfigProperty(name = "user-search.similar-match.llm-enabled", defaultValue = "false") boolean similarMatchLlmEnabled,
+                              @ConfigProperty(name = "user-search.llm.max-concurrency", defaultValue = "4") int llmMaxConcurrency,
+                              MeterRegistry registry) {
+        this.statisticUserService = statisticUserService;
+        this.searchAssistant = searchAssistant;
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.resultCache = resultCache;
+        this.coalescer = coalescer;
+        this.scoringService = scoringService;
+        this.fastPathEnabled = fastPathEnabled;
+        this.similarMatchLlmEnabled = similarMatchLlmEnabled;
+        this.llmPermits = new Semaphore(llmMaxConcurrency, true);
+        this.fastPathResolutions = resolutionCounter(registry, "fast");
+        this.javaScoredResolutions = resolutionCounter(registry, "java");
+        this.llmResolutions = resolutionCounter(registry, "llm");
+        this.toolCalls = DistributionSummary.builder("user.search.tool.calls")
+                .description("Number of tool calls made by the assistant per user search")
+                .register(registry);
+        this.llmQueueWait = Timer.builder("user.search.llm.queue.wait")
+                .description("Time user searches waited for a free assistant slot")
+                .register(registry);
+    }
+
+    /**
+     * Searches the user described by the query.
+     *
+     * @param sessionId the chat memory id used if the assistant has to be involved.
+     * @param query     the person to search for.
+     * @return the search result.
+     */
+    public UserSearchResult search(String sessionId, UserSearchQuery query) {
+        var cached = resultCache.get(query);
+        if (cached.isPresent()) {
+            Log.info("User search resolved from cache: " + cached.get());
+            return cached.get();
+        }
+        var generation = resultCache.generation();
+        var result = resolve(sessionId, query);
+        resultCache.put(query, result, generation);
+        return result;
+    }
+
+    private UserSearchResult resolve(String sessionId, UserSearchQuery query) {
+        if (fastPathEnabled || !similarMatchLlmEnabled) {
+            var result = statisticUserService.searchUser(query.firstName(), query.lastName(), query.birthDate());
+            if (!result.needsSimilarityScoring()) {
+                if (fastPathEnabled) {
+                    fastPathResolutions.increment();
+                    Log.info("User search resolved without LLM: " + result);
+                    return result;
+                }
+            } else if (!similarMatchLlmEnabled) {
+                var scored = scoringService.score(new Person(query.firstName(), query.lastName(), query.birthDate()), result).result();
+                javaScoredResolutions.increment();
+                Log.info("User search scored and explained without LLM: " + scored);
+                return scored;
+            }
+        }
+        llmResolutions.increment();
+        return coalescer.coalesce(query, () -> converse(sessionId, query));
+    }
+
+    private UserSearchResult converse(String sessionId, UserSearchQuery query) {
+        acquireLlmPermit();
+        try {
+            var result = searchAssistant.search(sessionId, query);
+            Log.info("User search result: " + result);
+            recordToolCalls(sessionId);
+            return result;
+        } finally {
+            llmPermits.release();
+        }
+    }
+
+    private void acquireLlmPermit() {
+        var start = System.nanoTime();
+        try {
+            llmPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a free assistant slot");
+        } finally {
+            llmQueueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void recordToolCalls(String sessionId) {
+        var calls = chatMemoryProvider.get(sessionId).messages().stream()
+                .filter(ToolExecutionResultMessage.class::isInstance)
+                .count();
+        toolCalls.record(calls);
+    }
+
+    private static Counter resolutionCounter(MeterRegistry registry, String path) {
+        return Counter.builder("user.search.resolutions")
+                .description("Number of resolved user searches by resolution path")
+                .tag("path", path)
+                .register(registry);
+    }
+}
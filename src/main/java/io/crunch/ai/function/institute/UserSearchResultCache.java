@@ -0,0 +1,137 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.BlockingKey;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.common.UsersIngested;
+import io.crunch.ai.function.statistic.StatisticUser;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of parsed {@link UserSearchResult}s keyed by the {@link UserSearchQuery} that produced them.
+ * <p>
+ * The query fields are the exact lookup key of the statistic search (which is case-sensitive), so the query
+ * record itself is the cache key. A hit answers the search without touching the database or the model.
+ * <p>
+ * Expiry, size bound, and hit/miss metrics are configured on the {@code user-search} Caffeine cache
+ * ({@code quarkus.cache.caffeine."user-search".*}).
+ *
+ * <h2>Invalidation</h2>
+ * Committed writes of {@link StatisticUser} and {@link InstituteUser} rows are observed as {@link PersonChanged} events:
+ * <ul>
+ *   <li>inserts and deletes invalidate the entry of the changed person;</li>
+ *   <li>inserts and deletes of {@link StatisticUser} rows also invalidate all entries of the same birth year, because
+ *       the row may be a fuzzy candidate of similar names: {@code PersonTrigramIndex} returns candidates of the same
+ *       birth date, and {@code PersonBlockingIndex} candidates of the same birth year. Entries of birth dates without
+ *       a year are invalidated by their birth date;</li>
+ *   <li>updates invalidate the whole cache, because the person (and thus the key) of the row may have changed.</li>
+ * </ul>
+ * Bulk ingests ({@link UsersIngested}) write without JPA events and invalidate the whole cache.
+ *
+ * <h2>Resolutions in Flight</h2>
+ * A search may take seconds to resolve, and an invalidation landing meanwhile must not be undone by caching the
+ * result computed before the change. Every invalidation therefore advances the {@link #generation()} before it
+ * removes entries; a result is cached with the generation read before its resolution started, and it is dropped
+ * again if any invalidation has happened since. This is deliberately coarse: an unrelated invalidation only costs
+ * one cache miss.
+ */
+@ApplicationScoped
+public class UserSearchResultCache {
+
+    private final CaffeineCache cache;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserSearchResultCache(@CacheName("user-search") Cache cache) {
+        this.cache = cache.as(CaffeineCache.class);
+    }
+
+    public Optional<UserSearchResult> get(UserSearchQuery query) {
+        CompletableFuture<UserSearchResult> cached = cache.getIfPresent(query);
+        return cached == null ? Optional.empty() : Optional.ofNullable(cached.getNow(null));
+    }
+
+    /**
+     * Returns the current invalidation generation; read it before resolving a result that is to be cached.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a resolved result, unless an invalidation happened since its resolution started.
+     *
+     * @param query      the query.
+     * @param result     the resolved result.
+     * @param generation the {@link #generation()} read before the resolution started.
+     */
+    public void put(UserSearchQuery query, UserSearchResult result, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        cache.put(query, CompletableFuture.completedFuture(result));
+        // An invalidation may have advanced the generation after the check, and removed its entries before the put
+        if (this.generation.get() != generation) {
+            cache.invalidate(query).await().indefinitely();
+        }
+    }
+
+    public void invalidate(Person person) {
+        generation.incrementAndGet();
+        cache.invalidate(new UserSearchQuery(person.firstName(), person.lastName(), person.birthDate())).await().indefinitely();
+    }
+
+    public void invalidateBirthYear(String birthDate) {
+        generation.incrementAndGet();
+        var year = BlockingKey.birthYear(birthDate);
+        if (year == null) {
+            var normalized = Person.normalize(birthDate);
+            cache.invalidateIf(key -> key instanceof UserSearchQuery query && Objects.equals(Person.normalize(query.birthDate()), normalized))
+                    .await().indefinitely();
+            return;
+        }
+        cache.invalidateIf(key -> key instanceof UserSearchQuery query && year.equals(BlockingKey.birthYear(query.birthDate())))
+                .await().indefinitely();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll().await().indefinitely();
+    }
+
+    void onUsersIngested(@Observes UsersIngested event) {
+        Log.info("Users ingested into " + event.entityType().getSimpleName() + ", invalidating all cached user search results");
+        invalidateAll();
+    }
+
+    void onPersonChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PersonChanged event) {
+        var person = switch (event.entity()) {
+            case StatisticUser user -> user.getPerson();
+            case InstituteUser user -> user.getPerson();
+            default -> null;
+        };
+        if (person == null) {
+            return;
+        }
+        if (event.type() == PersonChanged.Type.UPDATED) {
+            Log.info("User row updated, invalidating all cached user search results");
+            invalidateAll();
+        } else if (event.entity() instanceof StatisticUser) {
+            invalidateBirthYear(person.birthDate());
+        } else {
+            invalidate(person);
+        }
+    }
+}
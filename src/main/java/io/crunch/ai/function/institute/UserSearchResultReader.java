@@ -0,0 +1,63 @@
+package io.crunch.ai.function.institute;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+/**
+ * Shared parser of the {@link UserSearchResult} JSON produced by the {@link UserSearchAssistant}.
+ * <p>
+ * Building an {@link ObjectMapper} per response is expensive and discards Jackson's deserializer caches.
+ * This bean builds a single, thread-safe {@link ObjectReader} for the {@code UserSearchResult} hierarchy and
+ * pre-warms it with one sample of every result type, so the first requests do not pay for introspecting
+ * the polymorphic type handling. The reader uses the default mapper settings, i.e. unknown properties are
+ * still rejected.
+ * <p>
+ * The response is parsed once, by the {@link UserSearchOutputGuardrail}, which hands the parsed result over to
+ * the {@link UserSearchAssistant} as its return value.
+ */
+@ApplicationScoped
+public class UserSearchResultReader {
+
+    private static final List<String> WARM_UP_SAMPLES = List.of(
+            """
+            {"type":"NONEMATCH","person":{"firstName":"Alice","lastName":"Smith","birthDate":"1990-07-12"}}""",
+            """
+            {"type":"EXACTMATCH","user":{"person":{"firstName":"Alice","lastName":"Smith","birthDate":"1990-07-12"},
+             "address":{"country":"Germany","city":"Berlin","zipCode":"10115","street":"Invalidenstraße","houseNumber":"44"},
+             "score":1.0,"explanation":"Exact match found","externalId":"warm-up"}}""",
+            """
+            {"type":"SIMILARMATCH","users":[{"person":{"firstName":"Alice","lastName":"Smith","birthDate":"1990-07-12"},
+             "address":{"country":"Germany","city":"Berlin","zipCode":"10117","street":"Chausseestraße","houseNumber":"15"},
+             "similarityScore":0.9,"explanation":"Similar address","externalId":"warm-up"}]}""");
+
+    private final ObjectReader reader;
+
+    public UserSearchResultReader() {
+        this.reader = new ObjectMapper().readerFor(UserSearchResult.class);
+        for (var sample : WARM_UP_SAMPLES) {
+            try {
+                reader.readValue(sample);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Invalid user search result warm-up sample: " + sample, e);
+            }
+        }
+        Log.debug("User search result reader warmed up with " + WARM_UP_SAMPLES.size() + " samples");
+    }
+
+    /**
+     * Parses a response of the assistant.
+     *
+     * @param json the response text.
+     * @return the parsed result.
+     * @throws JsonProcessingException if the text is not a valid user search result.
+     */
+    public UserSearchResult read(String json) throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+}
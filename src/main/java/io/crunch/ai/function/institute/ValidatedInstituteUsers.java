@@ -0,0 +1,30 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Addresses of the institute users validated during the current request.
+ * <p>
+ * Every search first validates that the searched person is an institute user, which loads the user anyway.
+ * {@link InstituteUserService} remembers the address here, so a later {@code getUserAddress} call for the same
+ * person in the same request is answered from memory instead of running the same query again.
+ */
+@RequestScoped
+public class ValidatedInstituteUsers {
+
+    private final Map<Person, Address> addresses = new ConcurrentHashMap<>();
+
+    void remember(Person person, Address address) {
+        addresses.put(person, address);
+    }
+
+    Optional<Address> address(Person person) {
+        return Optional.ofNullable(addresses.get(person));
+    }
+}
@@ -0,0 +1,228 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.BlockingKey;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.common.ReloadableIndex;
+import io.crunch.ai.function.common.UsersIngested;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory multimap from {@link BlockingKey}s to the ids of the {@link StatisticUser}s sharing them.
+ * <p>
+ * A block holds the persons whose first and last names have the same Cologne phonetic codes and who are born in the
+ * same year, so it also contains near-miss names with a different birth day (which {@link PersonTrigramIndex} does
+ * not find). The blocking keys are stored in indexed columns of {@code STATISTIC_USER} as well.
+ *
+ * <h2>Updates</h2>
+ * The multimap is loaded on startup. Rows inserted without JPA or the bulk ingest (e.g. by {@code import.sql}) have no
+ * blocking key columns; they are backfilled first, over JDBC in batches of {@value #BACKFILL_BATCH_SIZE} rows that are
+ * committed one by one, so the backfill of a large table neither holds one long transaction nor issues one statement
+ * per row. Afterwards the multimap is kept up to date from committed {@link PersonChanged} events of
+ * {@link StatisticUser} rows; after a bulk ingest ({@link UsersIngested}), which writes the blocking keys itself,
+ * all rows are indexed into new blocks that are swapped in as a {@link ReloadableIndex}.
+ */
+@ApplicationScoped
+public class PersonBlockingIndex {
+
+    static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private static final String SELECT_MISSING = """
+            SELECT id, first_name, last_name, birth_date
+            FROM statistic_user
+            WHERE first_name_phonetic IS NULL AND id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String UPDATE_KEY = """
+            UPDATE statistic_user SET first_name_phonetic = ?, last_name_phonetic = ?, birth_year = ? WHERE id = ?
+            """;
+
+    private final ReloadableIndex<Blocks> index = new ReloadableIndex<>(new Blocks());
+
+    private final DataSource dataSource;
+
+    private final boolean enabled;
+
+    public PersonBlockingIndex(DataSource dataSource,
+                               @ConfigProperty(name = "user-search.blocking.enabled", defaultValue = "true") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the ids of the persons in the block of the given person.
+     *
+     * @param firstName the searched first name.
+     * @param lastName  the searched last name.
+     * @param birthDate the searched birth date.
+     * @return the ids of the block, in no particular order; empty if blocking is disabled.
+     */
+    public Set<Long> block(String firstName, String lastName, String birthDate) {
+        if (!enabled) {
+            return Set.of();
+        }
+        var block = index.current().blocks.get(BlockingKey.of(new Person(firstName, lastName, birthDate)));
+        return block == null ? Set.of() : Set.copyOf(block);
+    }
+
+    /**
+     * Returns the number of indexed persons.
+     */
+    public int size() {
+        return index.current().keys.size();
+    }
+
+    void onStartup(@Observes StartupEvent event) {
+        if (enabled) {
+            backfill();
+            QuarkusTransaction.requiringNew().run(this::load);
+        }
+    }
+
+    @Transactional
+    void onUsersIngested(@Observes UsersIngested event) {
+        if (enabled && event.entityType() == StatisticUser.class) {
+            load();
+        }
+    }
+
+    /**
+     * Writes the blocking key columns of the rows that have none, committing every batch.
+     */
+    private void backfill() {
+        long start = System.nanoTime();
+        int backfilled = 0;
+        try (var connection = dataSource.getConnection();
+             var select = connection.prepareStatement(SELECT_MISSING);
+             var update = connection.prepareStatement(UPDATE_KEY)) {
+            connection.setAutoCommit(false);
+            long lastId = Long.MIN_VALUE;
+            int batch;
+            do {
+                batch = 0;
+                select.setLong(1, lastId);
+                select.setInt(2, BACKFILL_BATCH_SIZE);
+                try (var rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        lastId = rows.getLong(1);
+                        var key = BlockingKey.of(new Person(rows.getString(2), rows.getString(3), rows.getString(4)));
+                        update.setString(1, key.firstName());
+                        update.setString(2, key.lastName());
+                        update.setObject(3, key.birthYear(), Types.INTEGER);
+                        update.setLong(4, lastId);
+                        update.addBatch();
+                        batch++;
+                    }
+                }
+                if (batch > 0) {
+                    update.executeBatch();
+                }
+                connection.commit();
+                backfilled += batch;
+            } while (batch == BACKFILL_BATCH_SIZE);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot backfill the statistic person blocking keys", e);
+        }
+        Log.infof("Backfilled %d statistic person blocking keys in %d ms", backfilled, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes every statistic user into new blocks, replays the changes committed meanwhile, and swaps them in.
+     * <p>
+     * Rows written without a blocking key after the backfill are indexed by the key computed from their person.
+     */
+    private void load() {
+        long start = System.nanoTime();
+        var loaded = index.reload(() -> {
+            var blocks = new Blocks();
+            try (var rows = StatisticUser.getEntityManager()
+                    .createQuery("select u.id, u.person, u.blockingKey from StatisticUser u", Object[].class)
+                    .getResultStream()) {
+                rows.forEach(row -> {
+                    var key = (BlockingKey) row[2];
+                    blocks.index((Long) row[0], key == null ? BlockingKey.of((Person) row[1]) : key);
+                });
+            }
+            return blocks;
+        });
+        Log.infof("Indexed %d statistic person blocking keys in %d ms", loaded.keys.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    void onPersonChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PersonChanged event) {
+        if (!enabled || !(event.entity() instanceof StatisticUser user)) {
+            return;
+        }
+        if (event.type() == PersonChanged.Type.DELETED) {
+            remove(user.id);
+        } else {
+            index(user.id, BlockingKey.of(user.getPerson()));
+        }
+    }
+
+    /**
+     * Adds a person to the block of its key, removing it from its previous block.
+     */
+    void index(long id, BlockingKey key) {
+        index.apply(blocks -> blocks.index(id, key));
+    }
+
+    void remove(long id) {
+        index.apply(blocks -> blocks.remove(id));
+    }
+
+    /**
+     * The blocks of the indexed persons.
+     */
+    private static final class Blocks {
+
+        private final Map<BlockingKey, Set<Long>> blocks = new ConcurrentHashMap<>();
+
+        private final Map<Long, BlockingKey> keys = new ConcurrentHashMap<>();
+
+        void index(long id, BlockingKey key) {
+            var previous = keys.put(id, key);
+            if (previous != null) {
+                removeFromBlock(id, previous);
+            }
+            blocks.compute(key, (k, block) -> {
+                var target = block == null ? ConcurrentHashMap.<Long>newKeySet() : block;
+                target.add(id);
+                return target;
+            });
+        }
+
+        void remove(long id) {
+            var previous = keys.remove(id);
+            if (previous != null) {
+                removeFromBlock(id, previous);
+            }
+        }
+
+        private void removeFromBlock(long id, BlockingKey key) {
+            blocks.computeIfPresent(key, (k, block) -> {
+                block.remove(id);
+                return block.isEmpty() ? null : block;
+            });
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.common.ReloadableIndex;
+import io.crunch.ai.function.common.UsersIngested;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram index over the names of all {@link StatisticUser}s, used to find near-miss names
+ * (e.g. "Meyer" for "Meier") when the exact statistic search has no hit.
+ *
+ * <h2>Structure</h2>
+ * Persons are partitioned by their normalized birth date, and every partition holds an inverted index from name
+ * trigrams to the persons containing them. A search therefore only touches the persons born on the searched date,
+ * which keeps it within a few milliseconds on millions of rows; names with a typo in the birth date are not found.
+ * First and last name are trimmed, lower-cased, and split into trigrams separately, each padded with two leading
+ * and one trailing blank so that the start of a name weighs more than its end.
+ *
+ * <h2>Similarity</h2>
+ * Candidates are ranked by the Dice coefficient of the trigram sets, {@code 2 * |common| / (|query| + |candidate|)};
+ * only candidates of at least {@code user-search.fuzzy.min-similarity} are returned, at most
+ * {@code user-search.fuzzy.max-candidates} of them.
+ *
+ * <h2>Updates</h2>
+ * The index is loaded on startup and kept up to date from committed {@link PersonChanged} events of
+ * {@link StatisticUser} rows; after a bulk ingest ({@link UsersIngested}) all rows are indexed into new partitions
+ * that are swapped in as a {@link ReloadableIndex}. {@code user.search.fuzzy.retrieval} times the searches.
+ */
+@ApplicationScoped
+public class PersonTrigramIndex {
+
+    /**
+     * A fuzzy candidate.
+     *
+     * @param id         the id of the {@link StatisticUser}.
+     * @param similarity the Dice coefficient of the name trigrams, in {@code (0.0, 1.0]}.
+     */
+    public record Candidate(long id, double similarity) { }
+
+    private static final Comparator<Candidate> BY_SIMILARITY = Comparator.comparingDouble(Candidate::similarity).reversed()
+            .thenComparingLong(Candidate::id);
+
+    private final ReloadableIndex<Partitions> index = new ReloadableIndex<>(new Partitions());
+
+    private final boolean enabled;
+
+    private final double minSimilarity;
+
+    private final int maxCandidates;
+
+    private final Timer retrieval;
+
+    public PersonTrigramIndex(@ConfigProperty(name = "user-search.fuzzy.enabled", defaultValue = "true") boolean enabled,
+                              @ConfigProperty(name = "user-search.fuzzy.min-similarity", defaultValue = "0.7") double minSimilarity,
+                              @ConfigProperty(name = "user-search.fuzzy.max-candidates", defaultValue = "10") int maxCandidates,
+                              MeterRegistry registry) {
+        if (minSimilarity <= 0d || minSimilarity > 1d) {
+            throw new IllegalArgumentException("The minimum fuzzy similarity must be in (0.0, 1.0]");
+        }
+        if (maxCandidates < 1) {
+            throw new IllegalArgumentException("The maximum number of fuzzy candidates must be positive");
+        }
+        this.enabled = enabled;
+        this.minSimilarity = minSimilarity;
+        this.maxCandidates = maxCandidates;
+        this.retrieval = Timer.builder("user.search.fuzzy.retrieval")
+                .description("Time spent retrieving fuzzy name candidates from the trigram index")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the persons born on the given date whose names are most similar to the given names.
+     *
+     * @param firstName the searched first name.
+     * @param lastName  the searched last name.
+     * @param birthDate the searched birth date.
+     * @return the candidates, most similar first; empty if the index is disabled.
+     */
+    public List<Candidate> search(String firstName, String lastName, String birthDate) {
+        if (!enabled) {
+            return List.of();
+        }
+        return retrieval.record(() -> {
+            var partition = index.current().partitions.get(key(birthDate));
+            return partition == null ? List.<Candidate>of() : partition.search(trigrams(firstName, lastName), minSimilarity, maxCandidates);
+        });
+    }
+
+    /**
+     * Returns the number of indexed persons.
+     */
+    public int size() {
+        return index.current().entries.size();
+    }
+
+    @Transactional
+    void onStartup(@Observes StartupEvent event) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Transactional
+    void onUsersIngested(@Observes UsersIngested event) {
+        if (enabled && event.entityType() == StatisticUser.class) {
+            load();
+        }
+    }
+
+    /**
+     * Indexes every statistic user into new partitions, replays the changes committed meanwhile, and swaps them in.
+     */
+    private void load() {
+        long start = System.nanoTime();
+        var loaded = index.reload(() -> {
+            var partitions = new Partitions();
+            try (var rows = StatisticUser.getEntityManager()
+                    .createQuery("select u.id, u.person from StatisticUser u", Object[].class)
+                    .getResultStream()) {
+                rows.forEach(row -> partitions.index((Long) row[0], (Person) row[1]));
+            }
+            return partitions;
+        });
+        Log.infof("Indexed %d statistic person names in %d ms", loaded.entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    void onPersonChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PersonChanged event) {
+        if (!enabled || !(event.entity() instanceof StatisticUser user)) {
+            return;
+        }
+        if (event.type() == PersonChanged.Type.DELETED) {
+            remove(user.id);
+        } else {
+            index(user.id, user.getPerson());
+        }
+    }
+
+    /**
+     * Indexes a person, replacing the previous person of the same id.
+     */
+    void index(long id, Person person) {
+        index.apply(partitions -> partitions.index(id, person));
+    }
+
+    void remove(long id) {
+        index.apply(partitions -> partitions.remove(id));
+    }
+
+    private static String key(String birthDate) {
+        var normalized = Person.normalize(birthDate);
+        return normalized == null ? "" : normalized;
+    }
+
+    /**
+     * Returns the sorted, distinct trigrams of both names, each trigram packed into a {@code long}.
+     */
+    static long[] trigrams(String firstName, String lastName) {
+        var first = padded(firstName);
+        var last = padded(lastName);
+        var trigrams = new long[first.length() - 2 + last.length() - 2];
+        int count = addTrigrams(first, 0, trigrams, 0);
+        // The names are tagged differently, so the same trigram in the first and the last name counts twice
+        count = addTrigrams(last, 1L << 48, trigrams, count);
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Returns the Dice coefficient of two sorted, distinct trigram sets, as returned by {@link #trigrams}.
+     */
+    static double similarity(long[] query, long[] trigrams) {
+        if (query.length + trigrams.length == 0) {
+            return 0d;
+        }
+        int common = 0;
+        for (int i = 0, j = 0; i < query.length && j < trigrams.length; ) {
+            if (query[i] == trigrams[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (query[i] < trigrams[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2d * common / (query.length + trigrams.length);
+    }
+
+    private static String padded(String name) {
+        var normalized = Person.normalize(name);
+        return "  " + (normalized == null ? "" : normalized) + " ";
+    }
+
+    private static int addTrigrams(String name, long tag, long[] trigrams, int count) {
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            trigrams[count++] = tag | (long) name.charAt(i) << 32 | (long) name.charAt(i + 1) << 16 | name.charAt(i + 2);
+        }
+        return count;
+    }
+
+    /**
+     * An indexed person.
+     *
+     * @param id        the id of the {@link StatisticUser}.
+     * @param birthDate the normalized birth date, i.e. the partition key.
+     * @param trigrams  the sorted, distinct name trigrams.
+     */
+    private record Entry(long id, String birthDate, long[] trigrams) { }
+
+    /**
+     * The indexed persons, partitioned by birth date.
+     */
+    private static final class Partitions {
+
+        private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+        void index(long id, Person person) {
+            var entry = new Entry(id, key(person.birthDate()), trigrams(person.firstName(), person.lastName()));
+            var previous = entries.put(id, entry);
+            if (previous != null) {
+                removeFromPartition(previous);
+            }
+            partitions.compute(entry.birthDate(), (birthDate, partition) -> {
+                var target = partition == null ? new Partition() : partition;
+                target.add(entry);
+                return target;
+            });
+        }
+
+        void remove(long id) {
+            var previous = entries.remove(id);
+            if (previous != null) {
+                removeFromPartition(previous);
+            }
+        }
+
+        private void removeFromPartition(Entry entry) {
+            partitions.computeIfPresent(entry.birthDate(), (birthDate, partition) -> {
+                partition.remove(entry);
+                return partition.isEmpty() ? null : partition;
+            });
+        }
+    }
+
+    /**
+     * Trigram postings of the persons born on the same date.
+     */
+    private static final class Partition {
+
+        private final Map<Long, List<Entry>> postings = new HashMap<>();
+
+        private int size;
+
+        synchronized void add(Entry entry) {
+            for (var trigram : entry.trigrams()) {
+                postings.computeIfAbsent(trigram, t -> new ArrayList<>(2)).add(entry);
+            }
+            size++;
+        }
+
+        synchronized void remove(Entry entry) {
+            for (var trigram : entry.trigrams()) {
+                var posting = postings.get(trigram);
+                if (posting != null) {
+                    posting.remove(entry);
+                    if (posting.isEmpty()) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+            size--;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        synchronized List<Candidate> search(long[] trigrams, double minSimilarity, int maxCandidates) {
+            var common = new HashMap<Entry, Integer>();
+            for (var trigram : trigrams) {
+                var posting = postings.get(trigram);
+                if (posting != null) {
+                    for (var entry : posting) {
+                        common.merge(entry, 1, Integer::sum);
+                    }
+                }
+            }
+            var candidates = new ArrayList<Candidate>();
+            common.forEach((entry, count) -> {
+                double similarity = 2d * count / (trigrams.length + entry.trigrams().length);
+                if (similarity >= minSimilarity) {
+                    candidates.add(new Candidate(entry.id(), similarity));
+                }
+            });
+            candidates.sort(BY_SIMILARITY);
+            return candidates.size() > maxCandidates ? List.copyOf(candidates.subList(0, maxCandidates)) : candidates;
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package io.crunch.ai.function.statistic;
 
 import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.BlockingKey;
 import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChangeListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "STATISTIC_USER")
+@Cacheable
+@EntityListeners(PersonChangeListener.class)
+@Table(name = "STATISTIC_USER", indexes = {
+        @Index(name = "statistic_user_person_idx", columnList = "last_name, first_name, birth_date"),
+        @Index(name = "statistic_user_blocking_key_idx", columnList = "last_name_phonetic, first_name_phonetic, birth_year")
+})
 public class StatisticUser extends PanacheEntity {
 
     @Column(name = "external_id", nullable = false, unique = true)
@@ -21,6 +33,9 @@ public class StatisticUser extends PanacheEntity {
     @Embedded
     private Address address;
 
+    @Embedded
+    private BlockingKey blockingKey;
+
     public String getExternalId() {
         return externalId;
     }
@@ -44,4 +59,14 @@ public class StatisticUser extends PanacheEntity {
     public void setAddress(Address address) {
         this.address = address;
     }
+
+    public BlockingKey getBlockingKey() {
+        return blockingKey;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateBlockingKey() {
+        blockingKey = BlockingKey.of(person);
+    }
 }
@@ -0,0 +1,105 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.common.PersonDictionaryIndex;
+import io.crunch.ai.function.common.UserDictionaryIndex;
+import io.crunch.ai.function.common.UsersIngested;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dictionary-encoded {@link PersonDictionaryIndex} of all {@link StatisticUser}s, answering the lookups of
+ * {@link StatisticUserService} from the heap when {@code user-search.dictionary-index.enabled} is set.
+ *
+ * <h2>Updates</h2>
+ * The index is loaded on startup and kept up to date from committed {@link PersonChanged} events of
+ * {@link StatisticUser} rows; after a bulk ingest ({@link UsersIngested}) a new index is loaded and swapped in.
+ * Loading, the replay of the changes committed meanwhile, and the footprint gauge are shared with the other user
+ * table in {@link UserDictionaryIndex}.
+ */
+@ApplicationScoped
+public class StatisticUserDictionaryIndex {
+
+    private final UserDictionaryIndex index;
+
+    private final boolean enabled;
+
+    public StatisticUserDictionaryIndex(@ConfigProperty(name = "user-search.dictionary-index.enabled", defaultValue = "false") boolean enabled,
+                                        MeterRegistry registry) {
+        this.enabled = enabled;
+        this.index = new UserDictionaryIndex("statistic_user", registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the users with exactly the given person.
+     */
+    List<StatisticUserView> find(String firstName, String lastName, String birthDate) {
+        return index.current().find(firstName, lastName, birthDate, StatisticUserView::new);
+    }
+
+    /**
+     * Returns the users with the given ids, in the order of the ids; unknown ids are skipped.
+     */
+    List<StatisticUserView> findByIds(Collection<Long> ids) {
+        return index.current().findByIds(ids, StatisticUserView::new);
+    }
+
+    /**
+     * Returns the number of indexed users.
+     */
+    public int size() {
+        return index.current().size();
+    }
+
+    @Transactional
+    void onStartup(@Observes StartupEvent event) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Transactional
+    void onUsersIngested(@Observes UsersIngested event) {
+        if (enabled && event.entityType() == StatisticUser.class) {
+            load();
+        }
+    }
+
+    /**
+     * Loads every statistic user into a new index and swaps it in.
+     */
+    private void load() {
+        index.load(loaded -> {
+            try (var rows = StatisticUser.getEntityManager()
+                    .createQuery("select u.id, u.externalId, u.person, u.address from StatisticUser u", Object[].class)
+                    .getResultStream()) {
+                rows.forEach(row -> loaded.put((Long) row[0], (String) row[1], (Person) row[2], (Address) row[3]));
+            }
+        });
+    }
+
+    void onPersonChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PersonChanged event) {
+        if (!enabled || !(event.entity() instanceof StatisticUser user)) {
+            return;
+        }
+        if (event.type() == PersonChanged.Type.DELETED) {
+            index.remove(user.id);
+        } else {
+            index.put(user.id, user.getExternalId(), user.getPerson(), user.getAddress());
+        }
+    }
+}
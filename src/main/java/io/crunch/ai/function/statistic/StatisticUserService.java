@@ -3,11 +3,23 @@ package io.crunch.ai.function.statistic;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.ReadOnlyTransaction;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class that integrates with the {@code StatisticUser} repository and provides
@@ -100,10 +112,75 @@ import java.util.List;
  *     </pre>
  *   </li>
  * </ol>
+ *
+ * <h2>Fuzzy Candidates</h2>
+ * If no user has exactly the searched names and birth date, candidates are pulled from two in-memory indexes:
+ * <ul>
+ *   <li>the {@link PersonTrigramIndex}, for users born on that date with near-miss names (e.g. "Meyer" for "Meier"),
+ *       most similar name first;</li>
+ *   <li>the {@link PersonBlockingIndex}, for users born in that year whose names sound alike.</li>
+ * </ul>
+ * At most {@code user-search.fuzzy.max-candidates} of them are returned as a {@code SIMILARMATCH}: the trigram
+ * candidates first, then the block members with the most similar names and the closest birth dates. Only if there
+ * are none the result is a {@code NONEMATCH}.
+ * <p>
+ * Every fuzzy search records how well the phonetic blocks work:
+ * {@code user.search.blocking.reduction.ratio} is the share of all users outside the block of the query, and
+ * {@code user.search.blocking.recall} the share of the trigram candidates that are inside it.
+ *
+ * <h2>Read-Only Lookups</h2>
+ * The search never writes: users are loaded as {@link StatisticUserView} projections instead of managed entities,
+ * and the transaction is a {@link ReadOnlyTransaction}, so there are no snapshots, dirty checks, or flushes.
+ * If {@code user-search.dictionary-index.enabled} is set, users are looked up in the in-memory
+ * {@link StatisticUserDictionaryIndex} instead. Otherwise, if {@code user-search.snapshot.enabled} is set, they are
+ * looked up in the memory-mapped snapshot of the {@link StatisticUserSnapshotEngine}, as long as it contains every
+ * committed change.
+ * <p>
+ * Otherwise, the person lookup goes through the Hibernate query cache (region {@value #LOOKUP_CACHE_REGION}) unless
+ * {@code user-search.query-cache.enabled} is off; {@link StatisticUser} entities are in the second-level cache.
  */
 @ApplicationScoped
 public class StatisticUserService {
 
+    static final String LOOKUP_CACHE_REGION = "statistic-user-lookups";
+
+    private final PersonTrigramIndex trigramIndex;
+
+    private final PersonBlockingIndex blockingIndex;
+
+    private final StatisticUserDictionaryIndex dictionaryIndex;
+
+    private final StatisticUserSnapshotEngine snapshotEngine;
+
+    private final boolean queryCacheEnabled;
+
+    private final int maxCandidates;
+
+    private final DistributionSummary blockingReductionRatio;
+
+    private final DistributionSummary blockingRecall;
+
+    public StatisticUserService(PersonTrigramIndex trigramIndex,
+                                PersonBlockingIndex blockingIndex,
+                                StatisticUserDictionaryIndex dictionaryIndex,
+                                StatisticUserSnapshotEngine snapshotEngine,
+                                @ConfigProperty(name = "user-search.query-cache.enabled", defaultValue = "true") boolean queryCacheEnabled,
+                                @ConfigProperty(name = "user-search.fuzzy.max-candidates", defaultValue = "10") int maxCandidates,
+                                MeterRegistry registry) {
+        this.trigramIndex = trigramIndex;
+        this.blockingIndex = blockingIndex;
+        this.dictionaryIndex = dictionaryIndex;
+        this.snapshotEngine = snapshotEngine;
+        this.queryCacheEnabled = queryCacheEnabled;
+        this.maxCandidates = maxCandidates;
+        this.blockingReductionRatio = DistributionSummary.builder("user.search.blocking.reduction.ratio")
+                .description("Share of the statistic users outside the phonetic block of a fuzzy search")
+                .register(registry);
+        this.blockingRecall = DistributionSummary.builder("user.search.blocking.recall")
+                .description("Share of the trigram candidates of a fuzzy search inside its phonetic block")
+                .register(registry);
+    }
+
     @Tool(name = "searchUser", value = {
         """
         THIS TOOL IS ALWAYS THE FIRST TOOL TO CALL.
@@ -208,35 +285,145 @@ public class StatisticUserService {
      """
     })
     @Transactional
+    @ReadOnlyTransaction
     public UserSearchResult searchUser(@P(value = "The user's first name", required = true) String firstName,
                                        @P(value = "The user's last name", required = true) String lastName,
                                        @P(value = "The user's birth date", required = true)  String birthDate) {
         Log.info("Searching for user with query: firstName=" + firstName + ", lastName=" + lastName + ", birthDate=" + birthDate);
-        List<StatisticUser> hits = StatisticUser.find("person.firstName = ?1 and person.lastName = ?2 and person.birthDate = ?3",
-                firstName,
-                lastName,
-                birthDate).list();
+        List<StatisticUserView> hits = find(firstName, lastName, birthDate);
         Log.info("Found " + hits.size() + " user(s) in statistic database");
         return switch (hits.size()) {
-            case 0 -> toNoMatchResult(firstName, lastName, birthDate);
+            case 0 -> toFuzzyMatchResult(firstName, lastName, birthDate);
             case 1 -> toExactMatchResult(hits);
             default -> toSimilarMatchesResult(hits);
         };
     }
 
-    private SimilarMatchesResult toSimilarMatchesResult(List<StatisticUser> hits) {
+    private UserSearchResult toFuzzyMatchResult(String firstName, String lastName, String birthDate) {
+        var candidates = trigramIndex.search(firstName, lastName, birthDate);
+        var block = blockingIndex.block(firstName, lastName, birthDate);
+        recordBlocking(candidates, block);
+        var selected = new LinkedHashSet<Long>();
+        candidates.forEach(candidate -> selected.add(candidate.id()));
+        selected.addAll(block);
+        if (selected.isEmpty()) {
+            return toNoMatchResult(firstName, lastName, birthDate);
+        }
+        List<StatisticUserView> hits = rank(findByIds(List.copyOf(selected)), candidates, firstName, lastName, birthDate);
+        Log.info("Found " + hits.size() + " fuzzy candidate(s) in statistic database");
+        if (hits.isEmpty()) {
+            return toNoMatchResult(firstName, lastName, birthDate);
+        }
+        return toSimilarMatchesResult(hits);
+    }
+
+    /**
+     * Orders the fuzzy hits and keeps the first {@code maxCandidates} of them.
+     * <p>
+     * The trigram candidates come first, in the order of the trigram index. The remaining members of the phonetic
+     * block follow by the Dice coefficient of their name trigrams, then by the distance of their birth date to the
+     * searched one, so that a large block is not cut down to its lowest ids.
+     */
+    private List<StatisticUserView> rank(List<StatisticUserView> hits, List<PersonTrigramIndex.Candidate> candidates,
+                                         String firstName, String lastName, String birthDate) {
+        var trigramRanks = new HashMap<Long, Integer>();
+        for (int i = 0; i < candidates.size(); i++) {
+            trigramRanks.put(candidates.get(i).id(), i);
+        }
+        var query = PersonTrigramIndex.trigrams(firstName, lastName);
+        var searched = birthDay(birthDate);
+        return hits.stream()
+                .map(user -> new RankedHit(user,
+                        trigramRanks.getOrDefault(user.id(), Integer.MAX_VALUE),
+                        PersonTrigramIndex.similarity(query, PersonTrigramIndex.trigrams(user.person().firstName(), user.person().lastName())),
+                        distance(searched, birthDay(user.person().birthDate()))))
+                .sorted(RankedHit.BY_RELEVANCE)
+                .limit(maxCandidates)
+                .map(RankedHit::user)
+                .toList();
+    }
+
+    private static LocalDate birthDay(String birthDate) {
+        try {
+            var normalized = Person.normalize(birthDate);
+            return normalized == null ? null : LocalDate.parse(normalized);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long distance(LocalDate searched, LocalDate birthDay) {
+        return searched == null || birthDay == null ? Long.MAX_VALUE : Math.abs(ChronoUnit.DAYS.between(searched, birthDay));
+    }
+
+    private List<StatisticUserView> find(String firstName, String lastName, String birthDate) {
+        if (dictionaryIndex.isEnabled()) {
+            return dictionaryIndex.find(firstName, lastName, birthDate);
+        }
+        return snapshotEngine.current()
+                .map(snapshot -> snapshot.find(firstName, lastName, birthDate))
+                .orElseGet(() -> StatisticUser.find("person.firstName = ?1 and person.lastName = ?2 and person.birthDate = ?3",
+                        firstName,
+                        lastName,
+                        birthDate)
+                        .project(StatisticUserView.class)
+                        .withHint(HibernateHints.HINT_CACHEABLE, queryCacheEnabled)
+                        .withHint(HibernateHints.HINT_CACHE_REGION, LOOKUP_CACHE_REGION)
+                        .list());
+    }
+
+    private List<StatisticUserView> findByIds(List<Long> ids) {
+        if (dictionaryIndex.isEnabled()) {
+            return dictionaryIndex.findByIds(ids);
+        }
+        return snapshotEngine.current()
+                .map(snapshot -> snapshot.findByIds(ids))
+                .orElseGet(() -> StatisticUser.find("id in ?1", ids).project(StatisticUserView.class).list());
+    }
+
+    private void recordBlocking(List<PersonTrigramIndex.Candidate> candidates, Set<Long> block) {
+        if (!blockingIndex.isEnabled()) {
+            return;
+        }
+        int indexed = blockingIndex.size();
+        if (indexed > 0) {
+            blockingReductionRatio.record(1d - (double) block.size() / indexed);
+        }
+        if (!candidates.isEmpty()) {
+            blockingRecall.record((double) candidates.stream().filter(candidate -> block.contains(candidate.id())).count() / candidates.size());
+        }
+    }
+
+    private SimilarMatchesResult toSimilarMatchesResult(List<StatisticUserView> hits) {
         return new SimilarMatchesResult(hits.stream().map(u -> toMatchUser(u, "")).toList());
     }
 
-    private ExactMatchResult toExactMatchResult(List<StatisticUser> hits) {
-        return new ExactMatchResult(toMatchUser(hits.getFirst(), hits.getFirst().getExternalId()));
+    private ExactMatchResult toExactMatchResult(List<StatisticUserView> hits) {
+        var user = hits.getFirst();
+        return new ExactMatchResult(new MatchUser(user.person(), user.address(), 1.0, "Exact match found", user.externalId()));
     }
 
     private NoMatchResult toNoMatchResult(String firstName, String lastName, String birthDate) {
         return new NoMatchResult(new Person(firstName, lastName, birthDate));
     }
 
-    private MatchUser toMatchUser(StatisticUser user, String externalId) {
-        return new MatchUser(user.getPerson(), user.getAddress(), 0.0, "", externalId);
+    private MatchUser toMatchUser(StatisticUserView user, String externalId) {
+        return new MatchUser(user.person(), user.address(), 0.0, "", externalId);
+    }
+
+    /**
+     * A fuzzy hit with its ranking keys.
+     *
+     * @param user         the hit.
+     * @param trigramRank  the position among the trigram candidates, {@link Integer#MAX_VALUE} if it is none.
+     * @param similarity   the Dice coefficient of the name trigrams.
+     * @param birthDateGap the days between the birth date and the searched one, {@link Long#MAX_VALUE} if unknown.
+     */
+    private record RankedHit(StatisticUserView user, int trigramRank, double similarity, long birthDateGap) {
+
+        static final Comparator<RankedHit> BY_RELEVANCE = Comparator.comparingInt(RankedHit::trigramRank)
+                .thenComparing(Comparator.comparingDouble(RankedHit::similarity).reversed())
+                .thenComparingLong(RankedHit::birthDateGap)
+                .thenComparingLong(hit -> hit.user().id());
     }
 }
@@ -0,0 +1,395 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Read-only, memory-mapped binary snapshot of the {@code STATISTIC_USER} rows, answering the lookups of
+ * {@link StatisticUserService} without the database.
+ * <p>
+ * The file is mapped with an automatic {@link Arena}, so the rows live off-heap and the mapping is released once the
+ * snapshot is no longer referenced; a snapshot can therefore be replaced while lookups on it are still running.
+ *
+ * <h2>File Format</h2>
+ * All numbers are big-endian; strings are a length (or {@code -1} for {@code null}) followed by their UTF-8 bytes.
+ * <ol>
+ *   <li>Header of {@value #HEADER_SIZE} bytes: magic, version, creation time, row count, and the size and position
+ *       of both hash tables.</li>
+ *   <li>Rows: id, external id, first name, last name, birth date, country, city, zip code, street, and house number.
+ *       Rows of the same person are stored next to each other.</li>
+ *   <li>Person table: open addressing with linear probing, one slot of (person hash, offset of the first row,
+ *       row count) per power-of-two position; a row count of {@code 0} marks an empty slot.</li>
+ *   <li>Id table: open addressing with linear probing, one slot of (id, row offset); a row offset of {@code 0} marks
+ *       an empty slot.</li>
+ * </ol>
+ * Person keys are compared exactly, like the case-sensitive JPA lookup; a {@code null} field is a value of its own.
+ */
+final class StatisticUserSnapshot {
+
+    static final int HEADER_SIZE = 64;
+
+    private static final int MAGIC = 0x53555331;
+
+    private static final int VERSION = 1;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private static final Address EMPTY_ADDRESS = new Address(null, null, null, null, null);
+
+    private static final int PERSON_SLOT_SIZE = 3 * Long.BYTES;
+
+    private static final int ID_SLOT_SIZE = 2 * Long.BYTES;
+
+    private final MemorySegment segment;
+
+    private final long createdAt;
+
+    private final long rows;
+
+    private final long personSlots;
+
+    private final long personTable;
+
+    private final long idSlots;
+
+    private final long idTable;
+
+    private StatisticUserSnapshot(MemorySegment segment) {
+        if (segment.byteSize() < HEADER_SIZE || segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION) {
+            throw new IllegalArgumentException("Not a statistic user snapshot");
+        }
+        this.segment = segment;
+        this.createdAt = segment.get(LONG, 8);
+        this.rows = segment.get(LONG, 16);
+        this.personSlots = segment.get(LONG, 24);
+        this.personTable = segment.get(LONG, 32);
+        this.idSlots = segment.get(LONG, 40);
+        this.idTable = segment.get(LONG, 48);
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file the snapshot file.
+     * @return the mapped snapshot.
+     * @throws IOException if the file cannot be mapped.
+     */
+    static StatisticUserSnapshot open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new StatisticUserSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto()));
+        }
+    }
+
+    /**
+     * Returns the time the rows of the snapshot were read from the database, in epoch milliseconds.
+     */
+    long createdAt() {
+        return createdAt;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    /**
+     * Returns all rows of a person.
+     *
+     * @param firstName the exact first name.
+     * @param lastName  the exact last name.
+     * @param birthDate the exact birth date.
+     * @return the rows, in id order.
+     */
+    List<StatisticUserView> find(String firstName, String lastName, String birthDate) {
+        long hash = hash(firstName, lastName, birthDate);
+        for (long slot = mix(hash) & (personSlots - 1); ; slot = (slot + 1) & (personSlots - 1)) {
+            long position = personTable + slot * PERSON_SLOT_SIZE;
+            long count = segment.get(LONG, position + 2 * Long.BYTES);
+            if (count == 0) {
+                return List.of();
+            }
+            if (segment.get(LONG, position) != hash) {
+                continue;
+            }
+            var cursor = new Cursor(segment.get(LONG, position + Long.BYTES));
+            var first = cursor.readRow();
+            var person = first.person();
+            if (!Objects.equals(person.firstName(), firstName) || !Objects.equals(person.lastName(), lastName)
+                    || !Objects.equals(person.birthDate(), birthDate)) {
+                continue;
+            }
+            var hits = new ArrayList<StatisticUserView>((int) count);
+            hits.add(first);
+            for (long i = 1; i < count; i++) {
+                hits.add(cursor.readRow());
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the rows with the given ids; unknown ids are skipped.
+     *
+     * @param ids the ids.
+     * @return the rows, in the order of the ids.
+     */
+    List<StatisticUserView> findByIds(Collection<Long> ids) {
+        var hits = new ArrayList<StatisticUserView>(ids.size());
+        for (var id : ids) {
+            for (long slot = mix(id) & (idSlots - 1); ; slot = (slot + 1) & (idSlots - 1)) {
+                long position = idTable + slot * ID_SLOT_SIZE;
+                long offset = segment.get(LONG, position + Long.BYTES);
+                if (offset == 0) {
+                    break;
+                }
+                if (segment.get(LONG, position) == id) {
+                    hits.add(new Cursor(offset).readRow());
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Hash of an exact person key.
+     */
+    private static long hash(String firstName, String lastName, String birthDate) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, firstName);
+        hash = hash(hash, lastName);
+        return hash(hash, birthDate);
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            // A marker of its own, so that null and "" differ
+            return (hash ^ 0xfffe) * 0x100000001b3L;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        // Separator, so that ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0xffff) * 0x100000001b3L;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static long slots(long entries) {
+        return Long.highestOneBit(Math.max(entries, 1) * 2 - 1) << 1;
+    }
+
+    /**
+     * Sequential reader of the rows region.
+     */
+    private final class Cursor {
+
+        private long position;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        private StatisticUserView readRow() {
+            long id = segment.get(LONG, position);
+            position += Long.BYTES;
+            var externalId = readString();
+            var person = new Person(readString(), readString(), readString());
+            var address = new Address(readString(), readString(), readString(), readString(), readString());
+            // Like Hibernate, an address without any column is no address
+            return new StatisticUserView(id, externalId, person, EMPTY_ADDRESS.equals(address) ? null : address);
+        }
+
+        private String readString() {
+            int length = segment.get(INT, position);
+            position += Integer.BYTES;
+            if (length < 0) {
+                return null;
+            }
+            var bytes = new byte[length];
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, bytes, 0, length);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes a snapshot file from rows ordered by person.
+     * <p>
+     * The rows are streamed to the file; only the hash tables are built in memory before they are appended.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final Path file;
+
+        private final long createdAt;
+
+        private final DataOutputStream output;
+
+        private long position = HEADER_SIZE;
+
+        private long[] groupHashes = new long[1024];
+
+        private long[] groupOffsets = new long[1024];
+
+        private long[] groupCounts = new long[1024];
+
+        private int groups;
+
+        private Person groupPerson;
+
+        private long[] ids = new long[1024];
+
+        private long[] rowOffsets = new long[1024];
+
+        private int rows;
+
+        /**
+         * Starts a snapshot file.
+         *
+         * @param file      the file to write; it is replaced.
+         * @param createdAt the time the rows are read from the database, in epoch milliseconds.
+         * @throws IOException if the file cannot be written.
+         */
+        Writer(Path file, long createdAt) throws IOException {
+            this.file = file;
+            this.createdAt = createdAt;
+            this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            output.write(new byte[HEADER_SIZE]);
+        }
+
+        /**
+         * Appends a row; rows of the same person must be added one after another.
+         */
+        void add(StatisticUserView row) throws IOException {
+            var person = row.person();
+            if (!person.equals(groupPerson)) {
+                if (groups == groupHashes.length) {
+                    groupHashes = Arrays.copyOf(groupHashes, groups * 2);
+                    groupOffsets = Arrays.copyOf(groupOffsets, groups * 2);
+                    groupCounts = Arrays.copyOf(groupCounts, groups * 2);
+                }
+                groupHashes[groups] = hash(person.firstName(), person.lastName(), person.birthDate());
+                groupOffsets[groups] = position;
+                groups++;
+                groupPerson = person;
+            }
+            groupCounts[groups - 1]++;
+            if (rows == ids.length) {
+                ids = Arrays.copyOf(ids, rows * 2);
+                rowOffsets = Arrays.copyOf(rowOffsets, rows * 2);
+            }
+            ids[rows] = row.id();
+            rowOffsets[rows] = position;
+            rows++;
+
+            output.writeLong(row.id());
+            position += Long.BYTES;
+            writeString(row.externalId());
+            writeString(person.firstName());
+            writeString(person.lastName());
+            writeString(person.birthDate());
+            var address = Objects.requireNonNullElse(row.address(), EMPTY_ADDRESS);
+            writeString(address.country());
+            writeString(address.city());
+            writeString(address.zipCode());
+            writeString(address.street());
+            writeString(address.houseNumber());
+        }
+
+        /**
+         * Appends the hash tables and writes the header.
+         *
+         * @throws IOException if the file cannot be written.
+         */
+        void finish() throws IOException {
+            long personSlots = slots(groups);
+            var personTable = new long[Math.toIntExact(personSlots * 3)];
+            for (int group = 0; group < groups; group++) {
+                long slot = mix(groupHashes[group]) & (personSlots - 1);
+                while (personTable[(int) slot * 3 + 2] != 0) {
+                    slot = (slot + 1) & (personSlots - 1);
+                }
+                personTable[(int) slot * 3] = groupHashes[group];
+                personTable[(int) slot * 3 + 1] = groupOffsets[group];
+                personTable[(int) slot * 3 + 2] = groupCounts[group];
+            }
+            long idSlots = slots(rows);
+            var idTable = new long[Math.toIntExact(idSlots * 2)];
+            for (int row = 0; row < rows; row++) {
+                long slot = mix(ids[row]) & (idSlots - 1);
+                while (idTable[(int) slot * 2 + 1] != 0) {
+                    slot = (slot + 1) & (idSlots - 1);
+                }
+                idTable[(int) slot * 2] = ids[row];
+                idTable[(int) slot * 2 + 1] = rowOffsets[row];
+            }
+
+            long personTableOffset = position;
+            writeLongs(personTable);
+            long idTableOffset = position;
+            writeLongs(idTable);
+            output.close();
+
+            try (var header = new RandomAccessFile(file.toFile(), "rw")) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeLong(createdAt);
+                header.writeLong(rows);
+                header.writeLong(personSlots);
+                header.writeLong(personTableOffset);
+                header.writeLong(idSlots);
+                header.writeLong(idTableOffset);
+                header.getFD().sync();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                output.writeInt(-1);
+                position += Integer.BYTES;
+                return;
+            }
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            position += Integer.BYTES + bytes.length;
+        }
+
+        private void writeLongs(long[] values) throws IOException {
+            for (var value : values) {
+                output.writeLong(value);
+            }
+            position += (long) values.length * Long.BYTES;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.common.UsersIngested;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds and serves the {@link StatisticUserSnapshot} that {@link StatisticUserService} answers lookups from when
+ * {@code user-search.snapshot.enabled} is set.
+ *
+ * <h2>Building</h2>
+ * The snapshot is built on startup from a single JDBC query ordered by person, streamed into a temporary file next to
+ * {@code user-search.snapshot.path}, and moved over the previous file. The new file is mapped and swapped in
+ * atomically; lookups still running on the previous snapshot keep their mapping until they finish.
+ *
+ * <h2>Staleness</h2>
+ * Every committed {@link PersonChanged} event of a {@link StatisticUser} and every bulk ingest ({@link UsersIngested})
+ * counts as a pending change and schedules a rebuild on a background thread; changes arriving during a rebuild are
+ * coalesced into the next one. While changes are pending, {@link #current()} returns nothing and the service falls
+ * back to JPA, so the search decisions never differ from the database. {@code user.search.snapshot.age} is the age
+ * of the snapshot in seconds, {@code user.search.snapshot.pending.changes} the number of changes it misses, and
+ * {@code user.search.snapshot.rows} its row count.
+ */
+@ApplicationScoped
+public class StatisticUserSnapshotEngine {
+
+    private static final String QUERY = """
+            SELECT id, external_id, first_name, last_name, birth_date, country, city, zip_code, street, house_number
+            FROM statistic_user
+            ORDER BY last_name, first_name, birth_date, id
+            """;
+
+    private final DataSource dataSource;
+
+    private final boolean enabled;
+
+    private final Path path;
+
+    private final AtomicReference<Loaded> loaded = new AtomicReference<>();
+
+    private final AtomicLong changes = new AtomicLong();
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    private final ExecutorService rebuilds = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("statistic-user-snapshot").daemon().factory());
+
+    public StatisticUserSnapshotEngine(DataSource dataSource,
+                                       @ConfigProperty(name = "user-search.snapshot.enabled", defaultValue = "false") boolean enabled,
+                                       @ConfigProperty(name = "user-search.snapshot.path", defaultValue = "${java.io.tmpdir}/statistic-user.snapshot") Path path,
+                                       MeterRegistry registry) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.path = path.toAbsolutePath();
+        Gauge.builder("user.search.snapshot.age", this, engine -> engine.snapshot()
+                        .map(snapshot -> (System.currentTimeMillis() - snapshot.createdAt()) / 1000d)
+                        .orElse(Double.NaN))
+                .description("Age of the statistic user snapshot")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("user.search.snapshot.pending.changes", this, StatisticUserSnapshotEngine::pendingChanges)
+                .description("Committed statistic user changes not yet contained in the snapshot")
+                .register(registry);
+        Gauge.builder("user.search.snapshot.rows", this, engine -> engine.snapshot().map(StatisticUserSnapshot::rows).orElse(0L))
+                .description("Rows of the statistic user snapshot")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the snapshot if it contains every committed change.
+     *
+     * @return the up-to-date snapshot; empty if the engine is disabled, not built yet, or a rebuild is pending.
+     */
+    Optional<StatisticUserSnapshot> current() {
+        var current = loaded.get();
+        if (current == null || current.changes() != changes.get()) {
+            return Optional.empty();
+        }
+        return Optional.of(current.snapshot());
+    }
+
+    /**
+     * Returns the number of committed changes the snapshot misses.
+     */
+    long pendingChanges() {
+        var current = loaded.get();
+        return current == null ? 0 : changes.get() - current.changes();
+    }
+
+    void onStartup(@Observes StartupEvent event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    void onPersonChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) PersonChanged event) {
+        if (enabled && event.entity() instanceof StatisticUser) {
+            changed();
+        }
+    }
+
+    void onUsersIngested(@Observes UsersIngested event) {
+        if (enabled && event.entityType() == StatisticUser.class) {
+            changed();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilds.shutdownNow();
+    }
+
+    private void changed() {
+        changes.incrementAndGet();
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilds.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    Log.error("Rebuilding the statistic user snapshot failed; lookups use the database until the next change", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Builds a snapshot of all rows and swaps it in.
+     */
+    synchronized void rebuild() {
+        long start = System.nanoTime();
+        // Read before the query: changes committed afterwards may be missing from the snapshot
+        long changesBefore = changes.get();
+        try {
+            Files.createDirectories(path.getParent());
+            var file = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                write(file);
+                Files.move(file, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+            var snapshot = StatisticUserSnapshot.open(path);
+            loaded.set(new Loaded(snapshot, changesBefore));
+            Log.infof("Built statistic user snapshot of %d rows (%d bytes) in %d ms", snapshot.rows(), Files.size(path), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write statistic user snapshot " + path, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read statistic users for the snapshot", e);
+        }
+    }
+
+    private void write(Path file) throws IOException, SQLException {
+        try (var connection = dataSource.getConnection();
+             var writer = new StatisticUserSnapshot.Writer(file, System.currentTimeMillis())) {
+            // PostgreSQL only streams the result with a fetch size inside a transaction
+            connection.setAutoCommit(false);
+            try (var statement = connection.prepareStatement(QUERY)) {
+                statement.setFetchSize(10_000);
+                try (var rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        var address = new Address(rows.getString(6), rows.getString(7), rows.getString(8), rows.getString(9), rows.getString(10));
+                        writer.add(new StatisticUserView(rows.getLong(1), rows.getString(2),
+                                new Person(rows.getString(3), rows.getString(4), rows.getString(5)), address));
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+            writer.finish();
+        }
+    }
+
+    private Optional<StatisticUserSnapshot> snapshot() {
+        return Optional.ofNullable(loaded.get()).map(Loaded::snapshot);
+    }
+
+    /**
+     * The mapped snapshot and the number of changes counted before its rows were read.
+     */
+    private record Loaded(StatisticUserSnapshot snapshot, long changes) { }
+}
@@ -0,0 +1,14 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+
+/**
+ * Read-only projection of a {@link StatisticUser}, loaded without managing the entity.
+ *
+ * @param id         the id of the user.
+ * @param externalId the external id of the user.
+ * @param person     the person of the user.
+ * @param address    the address of the user.
+ */
+record StatisticUserView(Long id, String externalId, Person person, Address address) { }
@@ -9,9 +9,14 @@ import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
 import io.crunch.ai.function.common.Address;
 import io.crunch.ai.function.common.Person;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * Represents the result of a user search in the statistics service.
@@ -37,7 +42,53 @@ import java.util.Set;
  */
 @JsonTypeInfo(use = JsonTypeInfo.Id.CUSTOM, include = JsonTypeInfo.As.PROPERTY, property = "type")
 @JsonTypeIdResolver(UserSearchResultTypeIdResolver.class)
-public sealed interface UserSearchResult permits NoMatchResult, SimilarMatchesResult, ExactMatchResult {}
+public sealed interface UserSearchResult permits NoMatchResult, SimilarMatchesResult, ExactMatchResult {
+
+    /**
+     * Tells whether the result still has to go through the similarity workflow before it can be returned.
+     * <p>
+     * {@code NONEMATCH} and {@code EXACTMATCH} results are final as returned by the statistic search;
+     * only {@code SIMILARMATCH} candidates need to be scored and explained.
+     *
+     * @return {@code true} if the candidates of this result must be scored, {@code false} if the result is final.
+     */
+    default boolean needsSimilarityScoring() {
+        return false;
+    }
+
+    /**
+     * Returns the addresses of the candidates that have to be scored, in candidate order.
+     *
+     * @return the candidate addresses, empty if the result has no candidates to score.
+     */
+    default List<Address> candidateAddresses() {
+        return List.of();
+    }
+
+    /**
+     * Returns the persons of the candidates that have to be scored, in candidate order.
+     * <p>
+     * Candidates found by the fuzzy search may differ from the searched person.
+     *
+     * @return the candidate persons, empty if the result has no candidates to score.
+     */
+    default List<Person> candidatePersons() {
+        return List.of();
+    }
+
+    /**
+     * Returns a copy of this result in which every candidate carries its score and its explanation.
+     * <p>
+     * Only {@code SIMILARMATCH} results have candidates to score; the other results are returned unchanged.
+     *
+     * @param scorer    computes the similarity score of the candidate at a position.
+     * @param explainer computes the explanation of the candidate at a position.
+     * @return the scored result.
+     */
+    default UserSearchResult withScores(IntToDoubleFunction scorer, IntFunction<String> explainer) {
+        return this;
+    }
+}
 
 /**
  * Represents the case where no user matches the given search criteria.
@@ -70,6 +121,31 @@ record SimilarMatchesResult(@JsonAlias({"similarUsers", "users", "candidates"})
         }
     }
 
+    @Override
+    public boolean needsSimilarityScoring() {
+        return true;
+    }
+
+    @Override
+    public List<Address> candidateAddresses() {
+        return users.stream().map(MatchUser::address).toList();
+    }
+
+    @Override
+    public List<Person> candidatePersons() {
+        return users.stream().map(MatchUser::person).toList();
+    }
+
+    @Override
+    public SimilarMatchesResult withScores(IntToDoubleFunction scorer, IntFunction<String> explainer) {
+        var scored = new ArrayList<MatchUser>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            var user = users.get(i);
+            scored.add(new MatchUser(user.person(), user.address(), scorer.applyAsDouble(i), explainer.apply(i), user.externalId()));
+        }
+        return new SimilarMatchesResult(scored);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof SimilarMatchesResult(List<MatchUser> similars))) return false;
@@ -148,23 +224,41 @@ record MatchUser(Person person, Address address, @JsonAlias({"score", "similarit
  *
  * <h2>Behavior</h2>
  * <ul>
- *   <li>{@link #idFromValue(Object)} returns the annotation value of the current class.</li>
- *   <li>{@link #typeFromId(DatabindContext, String)} performs the inverse mapping by
- *       scanning permitted subclasses of {@link UserSearchResult} and matching their
- *       {@link UserSearchResultSubType} value.</li>
+ *   <li>{@link #idFromValue(Object)} returns the annotation value of the value's class.</li>
+ *   <li>{@link #typeFromId(DatabindContext, String)} performs the inverse mapping to the permitted subclass
+ *       of {@link UserSearchResult} annotated with that {@link UserSearchResultSubType} value.</li>
  *   <li>Unknown type IDs will result in an {@link IllegalArgumentException}.</li>
  * </ul>
  *
  * <h2>Mechanism</h2>
  * This resolver enforces a strict, annotation-driven mapping instead of relying
  * on class names or defaults, making the serialization contract stable and explicit.
+ * The mapping is read once from the permitted subclasses when the class is initialized,
+ * so serialization and deserialization do not reflect on the hierarchy.
  */
 class UserSearchResultTypeIdResolver extends TypeIdResolverBase {
 
+    private static final Map<String, Class<?>> TYPES_BY_ID;
+
+    private static final Map<Class<?>, String> IDS_BY_TYPE;
+
+    static {
+        var typesById = new HashMap<String, Class<?>>();
+        var idsByType = new HashMap<Class<?>, String>();
+        for (Class<?> subtype : UserSearchResult.class.getPermittedSubclasses()) {
+            var ann = subtype.getAnnotation(UserSearchResultSubType.class);
+            if (ann != null) {
+                typesById.putIfAbsent(ann.value(), subtype);
+                idsByType.put(subtype, ann.value());
+            }
+        }
+        TYPES_BY_ID = Map.copyOf(typesById);
+        IDS_BY_TYPE = Map.copyOf(idsByType);
+    }
+
     @Override
     public String idFromValue(Object value) {
-        var ann = value.getClass().getAnnotation(UserSearchResultSubType.class);
-        return ann != null ? ann.value() : null;
+        return IDS_BY_TYPE.get(value.getClass());
     }
 
     @Override
@@ -174,13 +268,11 @@ class UserSearchResultTypeIdResolver extends TypeIdResolverBase {
 
     @Override
     public JavaType typeFromId(DatabindContext context, String id) {
-        for (Class<?> subtype : UserSearchResult.class.getPermittedSubclasses()) {
-            var ann = subtype.getAnnotation(UserSearchResultSubType.class);
-            if (ann != null && ann.value().equals(id)) {
-                return context.constructType(subtype);
-            }
+        var subtype = id == null ? null : TYPES_BY_ID.get(id);
+        if (subtype == null) {
+            throw new IllegalArgumentException("Unknown type id: " + id);
         }
-        throw new IllegalArgumentException("Unknown type id: " + id);
+        return context.constructType(subtype);
     }
 
     @Override
@@ -93,3 +93,15 @@ INSERT INTO statistic_user (id, first_name, last_name, birth_date, external_id,
    (nextval('statistic_user_seq'), 'Laura', 'Wagner', '1994-08-28', 'EXT503', 'Germany', 'Frankfurt', '60311', 'Fressg.', '5'),
    (nextval('statistic_user_seq'), 'Laura', 'Wagner', '1994-08-28', 'EXT504', 'Germany', 'Mainz', '60311', 'Fressgass', '5'),
    (nextval('statistic_user_seq'), 'Laura', 'Wagner', '1994-08-28', 'EXT505', 'Austria', 'Innsbruck', '60311', 'Fressgass', '5');
+
+-- ===============================
+-- FUZZY MATCH CASE (near-miss names only, found through the trigram index and the phonetic blocks)
+-- ===============================
+INSERT INTO institute_user (id, first_name, last_name, birth_date, country, city, zip_code, street, house_number)
+VALUES (nextval('institute_user_seq'), 'Thomas', 'Meier', '1985-03-15', 'Germany', 'Dresden', '01067', 'Prager Strasse', '12');
+
+INSERT INTO statistic_user (id, first_name, last_name, birth_date, external_id, country, city, zip_code, street, house_number) VALUES
+   (nextval('statistic_user_seq'), 'Thomas', 'Meyer', '1985-03-15', 'EXT601', 'Germany', 'Dresden', '01067', 'Prager Strasse', '12'),
+   (nextval('statistic_user_seq'), 'Tomas', 'Meier', '1985-03-15', 'EXT602', 'Germany', 'Dresden', '01069', 'Prager Str.', '12'),
+   (nextval('statistic_user_seq'), 'Thomas', 'Maier', '1985-03-15', 'EXT603', 'Germany', 'Leipzig', '04109', 'Markt', '3'),
+   (nextval('statistic_user_seq'), 'Tomas', 'Mayer', '1985-11-03', 'EXT604', 'Germany', 'Dresden', '01067', 'Prager Strasse', '12');
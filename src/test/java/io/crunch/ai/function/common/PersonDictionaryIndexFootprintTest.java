@@ -0,0 +1,84 @@
+package io.crunch.ai.function.common;
+
+import io.quarkus.logging.Log;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reports the heap footprint per million rows of the {@link PersonDictionaryIndex} compared with holding the same
+ * rows as {@link Person} and {@link Address} records, as loaded from the database.
+ * <p>
+ * The rows repeat values like the real data: a few thousand first names, streets, and zip codes, a few hundred
+ * cities, and about twenty thousand last names and birth dates, with a unique external id per row. The records are
+ * built from freshly created strings (one instance per field, as JDBC returns them). Both sides are measured the
+ * same way, as the growth of the used heap after a full GC while they are reachable; the estimate of
+ * {@link PersonDictionaryIndex#footprintBytes()} is only reported next to it.
+ */
+class PersonDictionaryIndexFootprintTest {
+
+    private static final int ROWS = 200_000;
+
+    private static final int MILLION = 1_000_000;
+
+    private static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1940, 1, 1);
+
+    @Test
+    void indexNeedsAFractionOfTheHeapOfRecords() {
+        var records = new ArrayList<Row>(ROWS);
+        long recordBytes = retainedBytes(() -> {
+            for (int i = 0; i < ROWS; i++) {
+                records.add(row(i));
+            }
+            return records;
+        });
+
+        var index = new PersonDictionaryIndex();
+        long indexBytes = retainedBytes(() -> {
+            for (int i = 0; i < ROWS; i++) {
+                var row = row(i);
+                index.put(row.id(), row.externalId(), row.person(), row.address());
+            }
+            return index;
+        });
+
+        Log.infof("Per million rows: Person/Address records %d MiB, dictionary index %d MiB, estimated %d MiB (%d distinct values in %d rows)",
+                recordBytes * MILLION / ROWS >> 20, indexBytes * MILLION / ROWS >> 20, index.footprintBytes() * MILLION / ROWS >> 20,
+                index.dictionarySize(), ROWS);
+        assertThat(index.size()).isEqualTo(records.size());
+        assertThat(indexBytes).isLessThan(recordBytes / 2);
+    }
+
+    /**
+     * Returns the growth of the used heap after a full GC while the built object is reachable.
+     */
+    private static long retainedBytes(Supplier<Object> builder) {
+        long before = usedHeapAfterGc();
+        var built = builder.get();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static Row row(int i) {
+        var person = new Person("First" + i % 2_000, "Last" + i % 20_011, FIRST_BIRTH_DATE.plusDays(i % 21_911).toString());
+        var address = new Address("Germany", "City" + i % 200, String.valueOf(10_000 + i % 2_000), "Street" + i % 5_000, String.valueOf(i % 300));
+        return new Row(i, "EXT-" + i, person, address);
+    }
+
+    private record Row(long id, String externalId, Person person, Address address) { }
+}
@@ -0,0 +1,78 @@
+package io.crunch.ai.function.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonDictionaryIndexTest {
+
+    private final PersonDictionaryIndex index = new PersonDictionaryIndex();
+
+    @Test
+    void findsAllRowsOfAPersonInInsertionOrder() {
+        index.put(1, "EXT-1", new Person("Clara", "Meier", "2000-07-21"), new Address("Germany", "Hamburg", "20095", "Sample Str.", "10"));
+        index.put(2, "EXT-2", new Person("Clara", "Meier", "2000-07-21"), new Address("Germany", "Berlin", "10117", "Sample Str.", "10"));
+        index.put(3, "EXT-3", new Person("Clara", "Meier", "2000-07-22"), null);
+
+        assertThat(index.find("Clara", "Meier", "2000-07-21", Row::new)).containsExactly(
+                new Row(1, "EXT-1", new Person("Clara", "Meier", "2000-07-21"), new Address("Germany", "Hamburg", "20095", "Sample Str.", "10")),
+                new Row(2, "EXT-2", new Person("Clara", "Meier", "2000-07-21"), new Address("Germany", "Berlin", "10117", "Sample Str.", "10")));
+        assertThat(index.find("Clara", "Meier", "2000-07-22", Row::new))
+                .containsExactly(new Row(3, "EXT-3", new Person("Clara", "Meier", "2000-07-22"), null));
+        assertThat(index.find("clara", "Meier", "2000-07-21", Row::new)).isEmpty();
+        assertThat(index.find("Meier", "Clara", "2000-07-21", Row::new)).isEmpty();
+        assertThat(index.findByIds(List.of(3L, 4L, 1L), (id, externalId, person, address) -> id)).containsExactly(3L, 1L);
+        // Every repeated value is stored once
+        assertThat(index.dictionarySize()).isEqualTo(14);
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index.put(1, "EXT-1", new Person("Thomas", "Meyer", "1985-03-15"), null);
+        index.put(2, "EXT-2", new Person("Thomas", "Meyer", "1985-03-15"), null);
+        index.put(1, "EXT-1", new Person("Thomas", "Meier", "1985-03-15"), null);
+
+        assertThat(index.find("Thomas", "Meyer", "1985-03-15", Row::new)).extracting(Row::id).containsExactly(2L);
+        assertThat(index.find("Thomas", "Meier", "1985-03-15", Row::new)).extracting(Row::id).containsExactly(1L);
+
+        index.remove(2);
+        index.remove(2);
+
+        assertThat(index.find("Thomas", "Meyer", "1985-03-15", Row::new)).isEmpty();
+        assertThat(index.findByIds(List.of(1L, 2L), Row::new)).extracting(Row::id).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesAMapUnderRandomWrites() {
+        var random = new Random(42);
+        var expected = new LinkedHashMap<Long, Row>();
+        for (int i = 0; i < 100_000; i++) {
+            long id = random.nextInt(20_000);
+            expected.remove(id);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+            } else {
+                var row = new Row(id, "EXT-" + id, new Person("F" + random.nextInt(20), "L" + random.nextInt(50), "D" + random.nextInt(10)),
+                        new Address("Germany", "C" + random.nextInt(30), null, "S" + random.nextInt(60), String.valueOf(random.nextInt(99))));
+                index.put(row.id(), row.externalId(), row.person(), row.address());
+                expected.put(id, row);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(expected.size());
+        assertThat(index.findByIds(expected.keySet(), Row::new)).containsExactlyElementsOf(expected.values());
+        for (var person : expected.values().stream().map(Row::person).distinct().toList()) {
+            var rows = new ArrayList<Row>();
+            expected.values().stream().filter(row -> row.person().equals(person)).forEach(rows::add);
+            assertThat(index.find(person.firstName(), person.lastName(), person.birthDate(), Row::new)).containsExactlyElementsOf(rows);
+        }
+    }
+
+    record Row(long id, String externalId, Person person, Address address) { }
+}
@@ -0,0 +1,44 @@
+package io.crunch.ai.function.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReloadableIndexTest {
+
+    private final ReloadableIndex<Map<Long, String>> index = new ReloadableIndex<>(new HashMap<>(Map.of(1L, "Meier", 2L, "Meyer")));
+
+    @Test
+    void reloadDropsRowsDeletedBeforeTheLoad() {
+        index.reload(() -> new HashMap<>(Map.of(1L, "Meier")));
+
+        assertThat(index.current()).containsExactly(Map.entry(1L, "Meier"));
+    }
+
+    @Test
+    void replaysChangesAppliedDuringTheLoadOnTheNewIndex() {
+        var loaded = index.reload(() -> {
+            // The load read the rows before these changes were committed
+            var rows = new HashMap<>(Map.of(1L, "Meier", 2L, "Meyer"));
+            index.apply(current -> current.remove(2L));
+            index.apply(current -> current.put(1L, "Maier"));
+            index.apply(current -> current.put(3L, "Mayer"));
+            assertThat(index.current()).containsOnly(Map.entry(1L, "Maier"), Map.entry(3L, "Mayer"));
+            return rows;
+        });
+
+        assertThat(index.current()).isSameAs(loaded).containsOnly(Map.entry(1L, "Maier"), Map.entry(3L, "Mayer"));
+    }
+
+    @Test
+    void appliesChangesOutsideALoadOnlyOnce() {
+        index.apply(current -> current.remove(2L));
+        index.reload(() -> new HashMap<>(Map.of(1L, "Meier")));
+        index.apply(current -> current.put(3L, "Mayer"));
+
+        assertThat(index.current()).containsOnly(Map.entry(1L, "Meier"), Map.entry(3L, "Mayer"));
+    }
+}
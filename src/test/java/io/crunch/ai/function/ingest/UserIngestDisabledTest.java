@@ -0,0 +1,30 @@
+package io.crunch.ai.function.ingest;
+
+import io.crunch.ai.function.institute.UserSearchTestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+
+@QuarkusTest
+@TestProfile(UserSearchTestProfile.class)
+class UserIngestDisabledTest {
+
+    @Test
+    void ingestEndpointsAreNotFoundByDefault() {
+        given()
+            .contentType("text/csv")
+            .body("external_id,first_name,last_name,birth_date,country,city,zip_code,street,house_number\n")
+            .post("/admin/ingest/statistic-users")
+            .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+        given()
+            .contentType("application/x-ndjson")
+            .body("")
+            .post("/admin/ingest/institute-users")
+            .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+}
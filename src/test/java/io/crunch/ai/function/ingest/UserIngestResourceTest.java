@@ -0,0 +1,99 @@
+package io.crunch.ai.function.ingest;
+
+import io.crunch.ai.function.institute.InstituteUser;
+import io.crunch.ai.function.statistic.PersonTrigramIndex;
+import io.crunch.ai.function.statistic.StatisticUser;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@QuarkusTest
+@TestProfile(UserIngestTestProfile.class)
+class UserIngestResourceTest {
+
+    @Inject
+    PersonTrigramIndex trigramIndex;
+
+    @Test
+    void ingestsCsvAndUpsertsOnExternalId() {
+        var csv = """
+                external_id,first_name,last_name,birth_date,country,city,zip_code,street,house_number
+                ING-1,Greta,Lindqvist,1979-12-01,Germany,Kiel,24103,Holstenstrasse,1
+                ING-2,Greta,Lindquist,1979-12-01,Germany,Kiel,24103,"Holstenstrasse, Hinterhaus",2
+                ING-1,Greta,Lindqvist,1979-12-01,Germany,Kiel,24105,Holstenstrasse,10
+                ING-3,,Lindqvist,1979-12-01,Germany,Kiel,24103,Holstenstrasse,3
+                """;
+
+        given()
+            .contentType("text/csv")
+            .body(csv)
+            .post("/admin/ingest/statistic-users")
+            .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .body("table", equalTo("statistic_user"))
+            .body("rows", equalTo(2))
+            .body("rejected", equalTo(1));
+
+        StatisticUser upserted = StatisticUser.find("externalId", "ING-1").singleResult();
+        assertThat(upserted.getAddress().houseNumber()).isEqualTo("10");
+        assertThat(upserted.getBlockingKey().birthYear()).isEqualTo(1979);
+        assertThat(trigramIndex.search("Greta", "Lindqvist", "1979-12-01")).hasSize(2);
+    }
+
+    @Test
+    void ingestsNdjsonAndUpsertsInstituteUsersOnPerson() {
+        var ndjson = """
+                {"person": {"firstName": "Ole", "lastName": "Hansen", "birthDate": "1981-02-03"}, "address": {"country": "Germany", "city": "Flensburg", "zipCode": "24937", "street": "Norderstrasse", "houseNumber": "4"}}
+                {"person": {"firstName": "Ole", "lastName": "Hansen", "birthDate": "1981-02-03"}, "address": {"country": "Germany", "city": "Flensburg", "zipCode": "24937", "street": "Norderstrasse", "houseNumber": "5"}}
+                """;
+
+        for (int i = 0; i < 2; i++) {
+            given()
+                .contentType("application/x-ndjson")
+                .body(ndjson)
+                .post("/admin/ingest/institute-users")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .body("rows", equalTo(1));
+        }
+
+        InstituteUser upserted = InstituteUser.find("person.firstName = ?1 and person.lastName = ?2", "Ole", "Hansen").singleResult();
+        assertThat(upserted.getAddress().houseNumber()).isEqualTo("5");
+    }
+
+    @Test
+    void rejectsMalformedCsv() {
+        given()
+            .contentType("text/csv")
+            .body("external_id,first_name\nING-9,Greta\n")
+            .post("/admin/ingest/statistic-users")
+            .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    @Test
+    void rejectsMalformedNdjson() {
+        given()
+            .contentType("application/x-ndjson")
+            .body("{\"person\": {\"firstName\": \"Ole\",\n")
+            .post("/admin/ingest/institute-users")
+            .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    @Test
+    void rejectsUnknownTarget() {
+        given()
+            .contentType("text/csv")
+            .body("")
+            .post("/admin/ingest/unknown-users")
+            .then()
+            .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+}
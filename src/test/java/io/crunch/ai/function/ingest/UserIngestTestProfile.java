@@ -0,0 +1,16 @@
+package io.crunch.ai.function.ingest;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+public class UserIngestTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "quarkus.otel.enabled", "false",
+            "user-search.similar-match.llm-enabled", "true",
+            "user-ingest.enabled", "true");
+    }
+}
@@ -0,0 +1,140 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.enterprise.event.Event;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives the eviction paths of the {@link InstituteChatMemoryStore} with a manual clock.
+ */
+class InstituteChatMemoryStoreTest {
+
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final List<ChatMessage> MESSAGES = List.of(UserMessage.from("Search Tomas Meier, born 1985-03-15"));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final List<Object> closedSessions = new ArrayList<>();
+
+    private long now;
+
+    @Test
+    void keepsMessagesPerSessionUntilDeleted() {
+        var store = store(10);
+
+        store.updateMessages("session-1", MESSAGES);
+        store.updateMessages("session-2", List.of());
+
+        assertThat(store.getMessages("session-1")).isEqualTo(MESSAGES);
+        assertThat(store.getMessages("unknown")).isEmpty();
+        assertThat(sessions()).isEqualTo(2.0);
+
+        store.deleteMessages("session-1");
+
+        assertThat(store.getMessages("session-1")).isEmpty();
+        assertThat(closedSessions).containsExactly("session-1");
+        assertThat(sessions()).isEqualTo(1.0);
+        assertThat(evictions("idle") + evictions("size")).isZero();
+    }
+
+    @Test
+    void clearingTheProvidedMemoryRemovesTheSession() {
+        var store = store(10);
+        var memory = new InstituteChatMemoryProvider(store, 50).get("session-1");
+        memory.add(MESSAGES.getFirst());
+
+        assertThat(store.getMessages("session-1")).isEqualTo(MESSAGES);
+
+        memory.clear();
+
+        assertThat(store.getMessages("session-1")).isEmpty();
+        assertThat(closedSessions).containsExactly("session-1");
+    }
+
+    @Test
+    void evictsSessionsIdleForTheTimeoutOnTheNextWrite() {
+        var store = store(10);
+        store.updateMessages("idle", MESSAGES);
+        store.updateMessages("read", MESSAGES);
+        advance(Duration.ofSeconds(8));
+        store.getMessages("read");
+        advance(Duration.ofSeconds(3));
+
+        store.updateMessages("fresh", MESSAGES);
+
+        assertThat(store.getMessages("idle")).isEmpty();
+        assertThat(store.getMessages("read")).isEqualTo(MESSAGES);
+        assertThat(store.getMessages("fresh")).isEqualTo(MESSAGES);
+        assertThat(closedSessions).containsExactly("idle");
+        assertThat(evictions("idle")).isEqualTo(1.0);
+        assertThat(sessions()).isEqualTo(2.0);
+    }
+
+    @Test
+    void sweepsIdleSessionsAtMostOncePerHalfTimeout() {
+        var store = store(10);
+        store.updateMessages("first", MESSAGES);
+        advance(Duration.ofSeconds(6));
+        // Sweeps, but nothing is idle yet
+        store.updateMessages("second", MESSAGES);
+        advance(Duration.ofSeconds(4));
+
+        // "first" is idle now, but the last sweep was only 4 seconds ago
+        store.updateMessages("third", MESSAGES);
+
+        assertThat(store.getMessages("first")).isEqualTo(MESSAGES);
+        assertThat(evictions("idle")).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedSessionsDownToNinetyPercentOfTheBound() {
+        var store = store(10);
+        for (int i = 0; i < 10; i++) {
+            store.updateMessages("session-" + i, MESSAGES);
+            advance(Duration.ofMillis(1));
+        }
+        store.getMessages("session-0");
+        advance(Duration.ofMillis(1));
+
+        store.updateMessages("session-10", MESSAGES);
+
+        assertThat(closedSessions).containsExactlyInAnyOrder("session-1", "session-2");
+        assertThat(store.getMessages("session-0")).isEqualTo(MESSAGES);
+        assertThat(store.getMessages("session-10")).isEqualTo(MESSAGES);
+        assertThat(evictions("size")).isEqualTo(2.0);
+        assertThat(evictions("idle")).isZero();
+        assertThat(sessions()).isEqualTo(9.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private InstituteChatMemoryStore store(int maxSessions) {
+        var sessionClosed = (Event<ChatSessionClosed>) mock(Event.class);
+        doAnswer(invocation -> closedSessions.add(invocation.<ChatSessionClosed>getArgument(0).memoryId()))
+                .when(sessionClosed).fire(any(ChatSessionClosed.class));
+        return new InstituteChatMemoryStore(maxSessions, IDLE_TIMEOUT, registry, sessionClosed, () -> now);
+    }
+
+    private void advance(Duration duration) {
+        now += duration.toNanos();
+    }
+
+    private double sessions() {
+        return registry.get("institute.chat.memory.sessions").gauge().value();
+    }
+
+    private double evictions(String cause) {
+        return registry.counter("institute.chat.memory.evictions", "cause", cause).count();
+    }
+}
@@ -0,0 +1,110 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.quarkus.logging.Log;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shows how many searches waiting on the model a single node holds at the same time.
+ * <p>
+ * The assistant is replaced by a mock that takes one second to answer, and the worker pool is limited to
+ * {@link UserSearchLoadTestProfile#WORKER_THREADS} threads. The same concurrent searches are sent twice: to the
+ * {@link WorkerPoolUserResource}, which serves the search on the worker pool as before, where at most that many
+ * searches wait on the model at once; and to {@code GET /users} on virtual threads, where all concurrent requests
+ * are in flight together.
+ * <p>
+ * All requests search the same person, so the result cache and the coalescing of identical conversations are
+ * mocked out; otherwise a single conversation would answer every request.
+ */
+@QuarkusTest
+@TestProfile(UserSearchLoadTestProfile.class)
+class InstituteUserResourceLoadTest {
+
+    private static final int CONCURRENT_REQUESTS = 64;
+
+    private static final UserSearchResult SIMILAR_MATCHES = similarMatches(List.of(matchUser(
+            person("Peter", "Weber", "1982-04-08"),
+            address("Germany", "Munich", "80332", "Sendlinger Strasse", "56"),
+            0.97, "", "")));
+
+    @InjectMock
+    UserSearchAssistant userSearchAssistant;
+
+    @InjectMock
+    UserSearchResultCache resultCache;
+
+    @InjectMock
+    UserSearchCoalescer coalescer;
+
+    @TestHTTPResource("/users")
+    URI usersUri;
+
+    @TestHTTPResource("/load-test/worker-pool/users")
+    URI workerPoolUsersUri;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @Test
+    void holdsMoreInFlightSearchesOnVirtualThreadsThanOnTheWorkerPool() throws Exception {
+        when(resultCache.get(any(UserSearchQuery.class))).thenReturn(Optional.empty());
+        when(coalescer.coalesce(any(UserSearchQuery.class), any())).thenAnswer(invocation -> invocation.<UserSearchCoalescer.Search>getArgument(1).run());
+        when(userSearchAssistant.search(anyString(), any(UserSearchQuery.class))).thenAnswer(invocation -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1000);
+                return SIMILAR_MATCHES;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        var workerPool = run(workerPoolUsersUri);
+        var virtualThreads = run(usersUri);
+
+        Log.info("Peak in-flight searches of " + CONCURRENT_REQUESTS + " requests with " + UserSearchLoadTestProfile.WORKER_THREADS
+                + " worker threads: " + workerPool.peakInFlight() + " on the worker pool (" + workerPool.millis() + " ms), "
+                + virtualThreads.peakInFlight() + " on virtual threads (" + virtualThreads.millis() + " ms)");
+        assertThat(workerPool.peakInFlight()).isLessThanOrEqualTo(UserSearchLoadTestProfile.WORKER_THREADS);
+        assertThat(virtualThreads.peakInFlight()).isGreaterThan(UserSearchLoadTestProfile.WORKER_THREADS);
+    }
+
+    private Measurement run(URI uri) throws Exception {
+        peakInFlight.set(0);
+        var request = HttpRequest.newBuilder(URI.create(uri + "?firstName=Peter&lastName=Weber&birthDate=1982-04-08")).GET().build();
+        var start = System.nanoTime();
+        try (var client = HttpClient.newHttpClient(); var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var responses = IntStream.range(0, CONCURRENT_REQUESTS)
+                    .mapToObj(i -> executor.submit(() -> client.send(request, HttpResponse.BodyHandlers.ofString())))
+                    .toList();
+            for (Future<HttpResponse<String>> response : responses) {
+                assertThat(response.get().statusCode()).isEqualTo(200);
+            }
+        }
+        return new Measurement(peakInFlight.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private record Measurement(int peakInFlight, long millis) { }
+}
@@ -13,12 +13,16 @@ import jakarta.ws.rs.core.Response;
 import org.awaitility.Durations;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
 import static io.restassured.RestAssured.given;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
@@ -69,7 +73,7 @@ class InstituteUserResourceTest {
                 assertThat(result).isInstanceOf(UserSearchResult.class);
                 assertThat(response).contains("Alice", "Johnson", "1990-05-21", "NONEMATCH");
                 verify(statisticUserService, atLeast(1)).searchUser("Alice", "Johnson", "1990-05-21");
-                verify(similarityDistanceCalculator, never()).jaroWinklerSimilarity(any(), any());
+                verify(similarityDistanceCalculator, never()).addressSimilarities(any(), anyList());
             });
     }
 
@@ -92,7 +96,7 @@ class InstituteUserResourceTest {
                 assertThat(response).contains("Clara", "Meier", "2000-07-21", "EXACTMATCH", "EXT-1001");
                 verify(statisticUserService, atLeast(1)).searchUser("Clara", "Meier", "2000-07-21");
                 verify(instituteUserService, never()).getUserAddress(any(Person.class));
-                verify(similarityDistanceCalculator, never()).jaroWinklerSimilarity(any(), any());
+                verify(similarityDistanceCalculator, never()).addressSimilarities(any(), anyList());
             });
     }
 
@@ -115,7 +119,47 @@ class InstituteUserResourceTest {
                 assertThat(response).contains("Peter", "Weber", "1982-04-08", "SIMILARMATCH");
                 verify(statisticUserService, atLeast(1)).searchUser("Peter", "Weber", "1982-04-08");
                 verify(instituteUserService, atLeast(1)).getUserAddress(new Person("Peter", "Weber", "1982-04-08"));
-                verify(similarityDistanceCalculator, atLeast(4)).jaroWinklerSimilarity(any(Address.class), any(Address.class));
+                verify(similarityDistanceCalculator, atLeast(1)).addressSimilarities(any(Address.class), argThat(candidates -> candidates.size() == 4));
             });
     }
+
+    @Test
+    void whenOnlyNearMissStatisticUsersFoundThenReturnsSimilarMatches() {
+        await()
+            .atMost(1, MINUTES)
+            .pollInterval(Durations.FIVE_SECONDS)
+            .untilAsserted(() -> {
+                var response = given()
+                    .param("firstName", "Thomas")
+                    .param("lastName", "Meier")
+                    .param("birthDate", "1985-03-15").when()
+                    .get("/users")
+                    .then()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .extract().response().body().asString();
+                var result = new ObjectMapper().readValue(response, UserSearchResult.class);
+                assertThat(result).isInstanceOf(UserSearchResult.class);
+                assertThat(response).contains("Meyer", "Tomas", "Mayer", "1985-11-03", "SIMILARMATCH");
+                verify(statisticUserService, atLeast(1)).searchUser("Thomas", "Meier", "1985-03-15");
+                verify(instituteUserService, atLeast(1)).getUserAddress(new Person("Thomas", "Meier", "1985-03-15"));
+            });
+    }
+
+    @Test
+    void whenBatchBodyIsMissingOrTooLargeThenReturnsBadRequest() {
+        given()
+            .contentType(MediaType.APPLICATION_JSON).when()
+            .post("/users/batch")
+            .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+
+        var queries = Collections.nCopies(UserSearchBatchService.MAX_QUERIES + 1, new UserSearchQuery("Alice", "Johnson", "1990-05-21"));
+        given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(queries).when()
+            .post("/users/batch")
+            .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+        verify(statisticUserService, never()).searchUser(anyString(), anyString(), anyString());
+    }
 }
@@ -0,0 +1,65 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Person;
+import io.quarkus.logging.Log;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Counts the SQL queries of a {@code SIMILARMATCH} search: the institute user loaded for validation must be reused
+ * for the address of the original person instead of being queried again.
+ */
+@QuarkusTest
+@TestProfile(UserSearchStatisticsTestProfile.class)
+class InstituteUserReuseTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @InjectSpy
+    InstituteUserService instituteUserService;
+
+    @Test
+    void similarMatchQueriesInstituteUserOnce() {
+        // Lookups cached by earlier tests would not be executed at all
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        var response = given()
+            .param("firstName", "Julia")
+            .param("lastName", "Fischer")
+            .param("birthDate", "1991-06-05").when()
+            .get("/users")
+            .then()
+            .statusCode(200)
+            .contentType(MediaType.APPLICATION_JSON)
+            .extract().response().body().asString();
+
+        assertThat(response).contains("SIMILARMATCH");
+        verify(instituteUserService, times(1)).getUserAddress(new Person("Julia", "Fischer", "1991-06-05"));
+        Log.infof("SIMILARMATCH search ran %d queries with %d prepared statements", statistics.getQueryExecutionCount(),
+                statistics.getPrepareStatementCount());
+        assertThat(instituteUserQueryExecutions(statistics)).isEqualTo(1);
+    }
+
+    private static long instituteUserQueryExecutions(Statistics statistics) {
+        return Arrays.stream(statistics.getQueries())
+                .filter(query -> query.contains("InstituteUser"))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+    }
+}
@@ -0,0 +1,170 @@
+package io.crunch.ai.function.institute;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the streaming bulk search writes one item per query in completion order, reports invalid and failing
+ * queries per item, and runs at most {@link UserSearchStreamTestProfile#MAX_IN_FLIGHT} queries at the same time.
+ * <p>
+ * The pipeline is mocked: a query for {@code Slow} takes a second, all others 100 ms; {@code Broken} fails, and
+ * {@code Unknown} is not a valid institute user.
+ */
+@QuarkusTest
+@TestProfile(UserSearchStreamTestProfile.class)
+class InstituteUserStreamResourceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final UserSearchResult NONE_MATCH = noneMatch(person("Peter", "Weber", "1982-04-08"));
+
+    private static final List<UserSearchQuery> QUERIES = List.of(
+            query("Slow"),
+            query("Fast"),
+            query("Unknown"),
+            query("Broken"),
+            query("Fast"));
+
+    @InjectMock
+    UserSearchPipeline searchPipeline;
+
+    @InjectMock
+    InstituteUserService instituteUserService;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(instituteUserService.isValidInstituteUser(anyString(), anyString(), anyString())).thenReturn(true);
+        when(instituteUserService.isValidInstituteUser(eq("Unknown"), anyString(), anyString())).thenReturn(false);
+        when(searchPipeline.search(anyString(), any(UserSearchQuery.class))).thenAnswer(invocation -> {
+            var query = invocation.<UserSearchQuery>getArgument(1);
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(query.firstName().equals("Slow") ? 1000 : 100);
+                if (query.firstName().equals("Broken")) {
+                    throw new IllegalStateException("model unavailable");
+                }
+                return NONE_MATCH;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    void streamsNdjsonItemsInCompletionOrder() {
+        var body = given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept("application/x-ndjson")
+            .body(QUERIES)
+            .post("/users/stream")
+            .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .extract().body().asString();
+
+        assertItems(body.lines().filter(line -> !line.isBlank()).map(InstituteUserStreamResourceTest::item).toList());
+    }
+
+    @Test
+    void streamsServerSentEventsInCompletionOrder() {
+        var body = given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.SERVER_SENT_EVENTS)
+            .body(QUERIES)
+            .post("/users/stream")
+            .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .extract().body().asString();
+
+        assertItems(body.lines().filter(line -> line.startsWith("data:")).map(line -> item(line.substring("data:".length()))).toList());
+    }
+
+    @Test
+    void runsAtMostMaxInFlightQueriesAtOnce() {
+        var queries = Collections.nCopies(8, query("Fast"));
+
+        var body = given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept("application/x-ndjson")
+            .body(queries)
+            .post("/users/stream")
+            .then()
+            .statusCode(Response.Status.OK.getStatusCode())
+            .extract().body().asString();
+
+        assertThat(body.lines().filter(line -> !line.isBlank()).map(InstituteUserStreamResourceTest::item))
+                .extracting(UserSearchBatchItem::index)
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, queries.size()).boxed().toList());
+        assertThat(peakInFlight.get()).isEqualTo(UserSearchStreamTestProfile.MAX_IN_FLIGHT);
+    }
+
+    @Test
+    void rejectsMissingAndOversizedBatches() {
+        given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept("application/x-ndjson")
+            .body("null")
+            .post("/users/stream")
+            .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+        given()
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.SERVER_SENT_EVENTS)
+            .body(Collections.nCopies(UserSearchBatchService.MAX_QUERIES + 1, query("Fast")))
+            .post("/users/stream")
+            .then()
+            .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
+    /**
+     * The slow first query completes last; the others complete in the order they were started.
+     */
+    private static void assertItems(List<UserSearchBatchItem> items) {
+        assertThat(items).extracting(UserSearchBatchItem::index).containsExactly(1, 2, 3, 4, 0);
+        assertThat(items).extracting(UserSearchBatchItem::status).containsExactly(
+                UserSearchBatchItem.Status.OK,
+                UserSearchBatchItem.Status.NOT_FOUND,
+                UserSearchBatchItem.Status.ERROR,
+                UserSearchBatchItem.Status.OK,
+                UserSearchBatchItem.Status.OK);
+        assertThat(items.get(0).result()).isEqualTo(NONE_MATCH);
+        assertThat(items.get(2).error()).isEqualTo("IllegalStateException: model unavailable");
+    }
+
+    private static UserSearchBatchItem item(String json) {
+        try {
+            return MAPPER.readValue(json, UserSearchBatchItem.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UserSearchQuery query(String firstName) {
+        return new UserSearchQuery(firstName, "Weber", "1982-04-08");
+    }
+}
@@ -0,0 +1,141 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks on randomly generated addresses that {@link JaroWinklerScorer} gives exactly the scores of commons-text
+ * {@link JaroWinklerSimilarity} applied to the string-normalized addresses.
+ * <p>
+ * The generator mixes ASCII, German umlauts, characters whose upper case expands ({@code ß}, {@code ŉ}, {@code ﬁ}),
+ * the Turkish dotless and dotted {@code i}, supplementary characters, a lone surrogate, surrounding whitespace,
+ * and {@code null} fields; candidates are either unrelated or near-duplicates of the original, so both sides of
+ * the Winkler threshold are covered. Every seed is reproducible.
+ */
+class JaroWinklerScorerTest {
+
+    private static final JaroWinklerSimilarity REFERENCE = new JaroWinklerSimilarity();
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789  \t-.äöüÄÖÜßŉﬁıİΐǰ𐐨\uD801";
+
+    private static final int SAMPLES = 20_000;
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 2024, 31337})
+    void similarityIsBitForBitEqualToCommonsText(long seed) {
+        var random = new Random(seed);
+        for (int i = 0; i < SAMPLES; i++) {
+            var original = randomAddress(random);
+            var candidate = random.nextInt(3) == 0 ? randomAddress(random) : nearDuplicate(original, random);
+
+            var expected = REFERENCE.apply(normalize(original), normalize(candidate));
+            var actual = JaroWinklerScorer.similarity(original, candidate);
+
+            assertThat(Double.doubleToLongBits(actual))
+                    .as("similarity of %s and %s (seed %d)", original, candidate, seed)
+                    .isEqualTo(Double.doubleToLongBits(expected));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42})
+    void normalizationEqualsStringNormalization(long seed) {
+        var random = new Random(seed);
+        for (int i = 0; i < SAMPLES; i++) {
+            var address = randomAddress(random);
+            assertThat(JaroWinklerScorer.normalize(address)).as("normalized %s", address).isEqualTo(normalize(address));
+        }
+    }
+
+    @Test
+    void batchScoresEqualSingleScores() {
+        var random = new Random(42);
+        var original = randomAddress(random);
+        var candidates = new ArrayList<Address>();
+        for (int i = 0; i < 2_000; i++) {
+            candidates.add(random.nextBoolean() ? randomAddress(random) : nearDuplicate(original, random));
+        }
+
+        var sequential = JaroWinklerScorer.similarities(original, candidates, false);
+        var parallel = JaroWinklerScorer.similarities(original, candidates, true);
+
+        for (int i = 0; i < candidates.size(); i++) {
+            var expected = REFERENCE.apply(normalize(original), normalize(candidates.get(i)));
+            assertThat(sequential[i]).isEqualTo(expected);
+            assertThat(parallel[i]).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void caseFoldingDoesNotDependOnTheDefaultLocale() {
+        var defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            var address = new Address("Türkiye", "istanbul", "34000", "İstiklal Caddesi", "1");
+            assertThat(JaroWinklerScorer.normalize(address)).isEqualTo("TÜRKIYEISTANBUL34000İSTIKLAL CADDESI1");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private static String normalize(Address address) {
+        if (address == null) {
+            return "";
+        }
+        return String.join("",
+                upper(address.country()),
+                upper(address.city()),
+                upper(address.zipCode()),
+                upper(address.street()),
+                upper(address.houseNumber())
+        ).trim();
+    }
+
+    private static String upper(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static Address randomAddress(Random random) {
+        if (random.nextInt(50) == 0) {
+            return null;
+        }
+        return new Address(randomField(random), randomField(random), randomField(random), randomField(random), randomField(random));
+    }
+
+    private static Address nearDuplicate(Address original, Random random) {
+        if (original == null) {
+            return randomAddress(random);
+        }
+        return new Address(mutate(original.country(), random), mutate(original.city(), random), mutate(original.zipCode(), random),
+                mutate(original.street(), random), mutate(original.houseNumber(), random));
+    }
+
+    private static String randomField(Random random) {
+        if (random.nextInt(20) == 0) {
+            return null;
+        }
+        var field = new StringBuilder();
+        for (int i = random.nextInt(16); i > 0; i--) {
+            field.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return field.toString();
+    }
+
+    private static String mutate(String value, Random random) {
+        if (value == null || value.isEmpty() || random.nextBoolean()) {
+            return value;
+        }
+        var chars = value.toCharArray();
+        chars[random.nextInt(chars.length)] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        return new String(chars);
+    }
+}
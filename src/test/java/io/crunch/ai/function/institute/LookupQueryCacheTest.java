@@ -0,0 +1,75 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.UsersIngested;
+import io.crunch.ai.function.statistic.StatisticUser;
+import io.crunch.ai.function.statistic.StatisticUserService;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that repeated person lookups are answered from the Hibernate query cache, and that a bulk ingest evicts it.
+ */
+@QuarkusTest
+@TestProfile(UserSearchStatisticsTestProfile.class)
+class LookupQueryCacheTest {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    StatisticUserService statisticUserService;
+
+    @Inject
+    InstituteUserService instituteUserService;
+
+    @Inject
+    Event<UsersIngested> ingested;
+
+    @BeforeEach
+    void clearCaches() {
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    void repeatedStatisticLookupHitsQueryCache() {
+        var first = statisticUserService.searchUser("Clara", "Meier", "2000-07-21");
+        var second = statisticUserService.searchUser("Clara", "Meier", "2000-07-21");
+
+        var region = sessionFactory.getStatistics().getQueryRegionStatistics("statistic-user-lookups");
+        assertThat(second).isEqualTo(first);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedInstituteLookupHitsQueryCache() {
+        var person = new Person("Julia", "Fischer", "1991-06-05");
+        var first = instituteUserService.getUserAddress(person);
+        var second = instituteUserService.getUserAddress(person);
+
+        var region = sessionFactory.getStatistics().getQueryRegionStatistics("institute-user-lookups");
+        assertThat(second).isEqualTo(first);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ingestEvictsCachedLookups() {
+        statisticUserService.searchUser("Clara", "Meier", "2000-07-21");
+        ingested.fire(new UsersIngested(StatisticUser.class, 1));
+        statisticUserService.searchUser("Clara", "Meier", "2000-07-21");
+
+        var region = sessionFactory.getStatistics().getQueryRegionStatistics("statistic-user-lookups");
+        assertThat(region.getMissCount()).isEqualTo(2);
+        assertThat(region.getHitCount()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package io.crunch.ai.function.institute;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MatchExplanationGeneratorTest {
+
+    private final MatchExplanationGenerator generator = new MatchExplanationGenerator(0.85, 0.6);
+
+    @Test
+    void explainsEveryFieldInOrderWithScoreBand() {
+        var similarity = new AddressSimilarity(exact(), differs(0.4), differs(0.8), exact(), exact(), 0.8234);
+
+        assertThat(generator.explain(similarity)).isEqualTo(
+                "Similarity 0.82. country matches, city differs, zipCode differs, street matches, houseNumber matches. "
+                + "Medium similarity, most fields match.");
+    }
+
+    @Test
+    void explainsIdenticalAddressAsHighSimilarity() {
+        var similarity = new AddressSimilarity(exact(), exact(), exact(), exact(), exact(), 1.0);
+
+        assertThat(generator.explain(similarity)).isEqualTo(
+                "Similarity 1.00. country matches, city matches, zipCode matches, street matches, houseNumber matches. "
+                + "High similarity, all fields match.");
+    }
+
+    @Test
+    void explainsUnrelatedAddressAsLowSimilarity() {
+        var similarity = new AddressSimilarity(exact(), differs(0.5), differs(0.3), differs(0.45), differs(0.0), 0.35);
+
+        assertThat(generator.explain(similarity)).isEqualTo(
+                "Similarity 0.35. country matches, city differs, zipCode differs, street differs, houseNumber differs. "
+                + "Low similarity, most fields differ.");
+    }
+
+    @Test
+    void explainsPersonFieldsOfCandidateThatIsAnotherPerson() {
+        var person = new PersonSimilarity(differs(0.95), differs(0.89), exact(), 0.9467);
+        var address = new AddressSimilarity(exact(), exact(), exact(), exact(), exact(), 1.0);
+
+        assertThat(generator.explain(0.9467, person, address)).isEqualTo(
+                "Similarity 0.95. firstName differs, lastName differs, birthDate matches, country matches, city matches, "
+                + "zipCode matches, street matches, houseNumber matches. High similarity, most fields match.");
+    }
+
+    @Test
+    void omitsPersonFieldsOfSearchedPerson() {
+        var person = new PersonSimilarity(exact(), exact(), exact(), 1.0);
+        var address = new AddressSimilarity(exact(), differs(0.4), differs(0.8), exact(), exact(), 0.8234);
+
+        assertThat(generator.explain(0.8234, person, address)).isEqualTo(generator.explain(address));
+    }
+
+    @Test
+    void rejectsMediumThresholdAboveHighThreshold() {
+        assertThatThrownBy(() -> new MatchExplanationGenerator(0.6, 0.85)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AddressSimilarity.Field exact() {
+        return new AddressSimilarity.Field(1.0, true);
+    }
+
+    private static AddressSimilarity.Field differs(double similarity) {
+        return new AddressSimilarity.Field(similarity, false);
+    }
+}
@@ -0,0 +1,116 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.interceptor.InvocationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemoizedToolInterceptorTest {
+
+    private static final Method LOOKUP;
+
+    static {
+        try {
+            LOOKUP = Tools.class.getDeclaredMethod("lookup", String.class, String.class);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ToolInvocationMemo memo = new ToolInvocationMemo(registry);
+
+    private final MemoizedToolInterceptor interceptor = new MemoizedToolInterceptor();
+
+    private final Tools tools = new Tools();
+
+    @BeforeEach
+    void setUp() {
+        interceptor.memo = memo;
+    }
+
+    @Test
+    void repeatedCallWithSameMemoryIdAndArgumentsReturnsMemoizedResult() throws Exception {
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#1");
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#1");
+
+        assertThat(tools.calls).hasValue(1);
+        assertThat(registry.counter("user.search.tool.duplicate.calls", "tool", "lookupUser").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void callWithOtherArgumentsOrOtherMemoryIdCallsTheTool() throws Exception {
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#1");
+        assertThat(call("session-1", "Schmidt")).isEqualTo("Schmidt#2");
+        assertThat(call("session-2", "Meyer")).isEqualTo("Meyer#3");
+
+        assertThat(tools.calls).hasValue(3);
+    }
+
+    @Test
+    void failedCallIsNotMemoized() throws Exception {
+        tools.failures = 1;
+
+        assertThatThrownBy(() -> call("session-1", "Meyer")).isInstanceOf(IllegalStateException.class);
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#2");
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#2");
+
+        assertThat(tools.calls).hasValue(2);
+    }
+
+    @Test
+    void closedSessionDropsItsMemoizedResults() throws Exception {
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#1");
+        assertThat(call("session-2", "Meyer")).isEqualTo("Meyer#2");
+
+        memo.onSessionClosed(new ChatSessionClosed("session-1"));
+
+        assertThat(call("session-1", "Meyer")).isEqualTo("Meyer#3");
+        assertThat(call("session-2", "Meyer")).isEqualTo("Meyer#2");
+        assertThat(tools.calls).hasValue(3);
+    }
+
+    @Test
+    void callWithoutMemoryIdIsNotMemoized() throws Exception {
+        assertThat(call(null, "Meyer")).isEqualTo("Meyer#1");
+        assertThat(call(null, "Meyer")).isEqualTo("Meyer#2");
+
+        assertThat(tools.calls).hasValue(2);
+    }
+
+    private Object call(String memoryId, String lastName) throws Exception {
+        var context = mock(InvocationContext.class);
+        when(context.getMethod()).thenReturn(LOOKUP);
+        when(context.getParameters()).thenReturn(new Object[] { memoryId, lastName });
+        when(context.proceed()).thenAnswer(invocation -> tools.lookup(memoryId, lastName));
+        return interceptor.memoize(context);
+    }
+
+    static class Tools {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        int failures;
+
+        @Tool(name = "lookupUser")
+        String lookup(@ToolMemoryId String memoryId, String lastName) {
+            int call = calls.incrementAndGet();
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("Database unavailable");
+            }
+            return lastName + "#" + call;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.statistic.StatisticUserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserMatchScoringServiceTest {
+
+    private static final Person SEARCHED = person("Tomas", "Meier", "1985-03-15");
+
+    private static final Address ADDRESS = address("Germany", "Dresden", "01069", "Prager Str.", "12");
+
+    private final InstituteUserService instituteUserService = mock(InstituteUserService.class);
+
+    private final UserMatchScoringService scoringService = new UserMatchScoringService(mock(StatisticUserService.class), instituteUserService,
+            new SimilarityDistanceCalculator(0.05, 0.2, 0.25, 0.35, 0.15), new MatchExplanationGenerator(0.85, 0.6));
+
+    @Test
+    void scoresFuzzyCandidateWithSameAddressBelowSearchedPerson() {
+        when(instituteUserService.getUserAddress(SEARCHED)).thenReturn(ADDRESS);
+        var result = similarMatches(List.of(
+                matchUser(SEARCHED, ADDRESS, 0.0, "", "EXT602"),
+                matchUser(person("Thomas", "Meyer", "1985-03-15"), ADDRESS, 0.0, "", "EXT601")));
+
+        var scored = scoringService.score(SEARCHED, result);
+
+        var personSimilarities = scored.personSimilarities();
+        assertThat(personSimilarities).hasSize(2);
+        assertThat(personSimilarities.get(0).exact()).isTrue();
+        assertThat(personSimilarities.get(0).score()).isEqualTo(1.0);
+        assertThat(personSimilarities.get(1).exact()).isFalse();
+        assertThat(personSimilarities.get(1).firstName().exact()).isFalse();
+        assertThat(personSimilarities.get(1).lastName().exact()).isFalse();
+        assertThat(personSimilarities.get(1).birthDate().exact()).isTrue();
+        assertThat(personSimilarities.get(1).score()).isLessThan(1.0);
+        assertThat(scored.similarities()).extracting(AddressSimilarity::score).containsExactly(1.0, 1.0);
+        assertThat(scored.result().toString())
+                .contains("score=1.0, explanation=Similarity 1.00. country matches, city matches, zipCode matches, street matches, "
+                        + "houseNumber matches. High similarity, all fields match.")
+                .contains("score=" + personSimilarities.get(1).score() + ", explanation=Similarity")
+                .contains("firstName differs, lastName differs, birthDate matches")
+                .doesNotContain("explanation=Similarity 1.00. firstName");
+    }
+}
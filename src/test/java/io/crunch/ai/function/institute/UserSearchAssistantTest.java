@@ -1,8 +1,8 @@
 package io.crunch.ai.function.institute;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import io.crunch.ai.function.statistic.UserSearchResult;
 import io.quarkiverse.langchain4j.evaluation.junit5.Evaluate;
 import io.quarkiverse.langchain4j.evaluation.junit5.ScorerConfiguration;
 import io.quarkiverse.langchain4j.testing.evaluation.EvaluationSample;
@@ -33,15 +33,15 @@ class UserSearchAssistantTest {
     ChatMemoryProvider chatMemoryProvider;
 
     @Test
-    void scoreExactMatch(@ScorerConfiguration Scorer scorer) throws JsonProcessingException {
+    void scoreExactMatch(@ScorerConfiguration Scorer scorer) {
         var samples = new Samples<>(
-            EvaluationSample.<String>builder()
+            EvaluationSample.<UserSearchResult>builder()
                 .withName("ExactMatch")
                 .withParameter(new NamedParameter("firstName", "Clara"))
                 .withParameter(new NamedParameter("lastName", "Meier"))
                 .withParameter(new NamedParameter("birthDate", "2000-07-21"))
                 .withExpectedOutput(
-                    exactMatchAsString(matchUser(
+                    exactMatch(matchUser(
                         person("Clara", "Meier", "2000-07-21"),
                         address("Germany", "Hamburg", "20095", "Sample Str.", "10"),
                         1.0, "No explanation available", "EXT-1001"))).build()
@@ -51,30 +51,30 @@ class UserSearchAssistantTest {
     }
 
     @Test
-    void scoreNoneMatch(@ScorerConfiguration Scorer scorer) throws JsonProcessingException {
+    void scoreNoneMatch(@ScorerConfiguration Scorer scorer) {
         var samples = new Samples<>(
-            EvaluationSample.<String>builder()
+            EvaluationSample.<UserSearchResult>builder()
                 .withName("NoneMatch")
                 .withParameter(new NamedParameter("firstName", "Alice"))
                 .withParameter(new NamedParameter("lastName", "Johnson"))
                 .withParameter(new NamedParameter("birthDate", "1990-05-21"))
                 .withExpectedOutput(
-                        nonMatchAsString(person("Alice", "Johnson", "1990-05-21"))).build()
+                        noneMatch(person("Alice", "Johnson", "1990-05-21"))).build()
         );
 
         score(scorer, samples, 99.0);
     }
 
     @Test
-    void scoreSimilarMatch(@ScorerConfiguration Scorer scorer) throws JsonProcessingException {
+    void scoreSimilarMatch(@ScorerConfiguration Scorer scorer) {
         var samples = new Samples<>(
-            EvaluationSample.<String>builder()
+            EvaluationSample.<UserSearchResult>builder()
                 .withName("SimilarMatches")
                 .withParameter(new NamedParameter("firstName", "Peter"))
                 .withParameter(new NamedParameter("lastName", "Weber"))
                 .withParameter(new NamedParameter("birthDate", "1982-04-08"))
                 .withExpectedOutput(
-                    similarMatchesAsString(List.of(
+                    similarMatches(List.of(
                         matchUser(
                             person("Peter", "Weber", "1982-04-08"),
                             address("Germany", "Munich", "80332", "Sendlinger Strasse", "56"),
@@ -96,7 +96,7 @@ class UserSearchAssistantTest {
         score(scorer, samples, 99.0);
     }
 
-    private void score(Scorer scorer, Samples<String> samples, double threshold) {
+    private void score(Scorer scorer, Samples<UserSearchResult> samples, double threshold) {
         var sessionId = UUID.randomUUID().toString();
         try {
             var report = scorer.evaluate(
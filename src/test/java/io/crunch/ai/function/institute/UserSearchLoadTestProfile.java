@@ -0,0 +1,20 @@
+package io.crunch.ai.function.institute;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+public class UserSearchLoadTestProfile implements QuarkusTestProfile {
+
+    static final int WORKER_THREADS = 8;
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "quarkus.otel.enabled", "false",
+            "quarkus.thread-pool.max-threads", String.valueOf(WORKER_THREADS),
+            "quarkus.datasource.jdbc.max-size", "64",
+            "user-search.llm.max-concurrency", "1000",
+            "user-search.similar-match.llm-enabled", "true");
+    }
+}
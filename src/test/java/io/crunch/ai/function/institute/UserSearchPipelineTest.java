@@ -0,0 +1,135 @@
+package io.crunch.ai.function.institute;
+
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import io.crunch.ai.function.statistic.StatisticUserService;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSearchPipelineTest {
+
+    private static final UserSearchQuery QUERY = new UserSearchQuery("Peter", "Weber", "1982-04-08");
+
+    private static final UserSearchResult NONE_MATCH = noneMatch(person("Peter", "Weber", "1982-04-08"));
+
+    private static final UserSearchResult SIMILAR_MATCHES = similarMatches(List.of(matchUser(
+            person("Peter", "Weber", "1982-04-08"),
+            address("Germany", "Munich", "80332", "Sendlinger Strasse", "56"),
+            0.0, "", "EXT-1")));
+
+    private static final UserSearchResult SCORED = similarMatches(List.of(matchUser(
+            person("Peter", "Weber", "1982-04-08"),
+            address("Germany", "Munich", "80332", "Sendlinger Strasse", "56"),
+            0.97, "High similarity, all fields match.", "EXT-1")));
+
+    private static final UserSearchResult ANSWERED = similarMatches(List.of(matchUser(
+            person("Peter", "Weber", "1982-04-08"),
+            address("Germany", "Munich", "80332", "Sendlinger Strasse", "56"),
+            0.97, "High similarity, all fields match. Likely the same person.", "EXT-1")));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final StatisticUserService statisticUserService = mock(StatisticUserService.class);
+
+    private final UserSearchAssistant searchAssistant = mock(UserSearchAssistant.class);
+
+    private final UserMatchScoringService scoringService = mock(UserMatchScoringService.class);
+
+    private final UserSearchResultCache resultCache = mock(UserSearchResultCache.class);
+
+    private final ChatMemoryProvider chatMemoryProvider = mock(ChatMemoryProvider.class);
+
+    @BeforeEach
+    void setUp() {
+        var chatMemory = mock(ChatMemory.class);
+        when(chatMemory.messages()).thenReturn(List.of());
+        when(chatMemoryProvider.get(any())).thenReturn(chatMemory);
+        when(resultCache.get(any(UserSearchQuery.class))).thenReturn(Optional.empty());
+        when(scoringService.score(any(), any())).thenReturn(new ScoredUserSearch(SCORED, null, List.of(), List.of()));
+        when(searchAssistant.search(anyString(), any(UserSearchQuery.class))).thenReturn(ANSWERED);
+    }
+
+    @Test
+    void fastPathReturnsNoneMatchWithoutAssistant() {
+        when(statisticUserService.searchUser("Peter", "Weber", "1982-04-08")).thenReturn(NONE_MATCH);
+
+        assertThat(pipeline(true, false).search("session", QUERY)).isEqualTo(NONE_MATCH);
+
+        verify(searchAssistant, never()).search(anyString(), any(UserSearchQuery.class));
+        assertThat(resolutions("fast")).isEqualTo(1.0);
+    }
+
+    @Test
+    void cachesResultWithGenerationReadBeforeResolution() {
+        when(resultCache.generation()).thenReturn(3L, 4L);
+        when(statisticUserService.searchUser("Peter", "Weber", "1982-04-08")).thenReturn(NONE_MATCH);
+
+        pipeline(true, false).search("session", QUERY);
+
+        verify(resultCache).put(QUERY, NONE_MATCH, 3L);
+    }
+
+    @Test
+    void similarMatchesScoredInJavaAreCountedSeparately() {
+        when(statisticUserService.searchUser("Peter", "Weber", "1982-04-08")).thenReturn(SIMILAR_MATCHES);
+
+        assertThat(pipeline(true, false).search("session", QUERY)).isEqualTo(SCORED);
+
+        verify(searchAssistant, never()).search(anyString(), any(UserSearchQuery.class));
+        assertThat(resolutions("java")).isEqualTo(1.0);
+        assertThat(resolutions("fast")).isZero();
+    }
+
+    @Test
+    void disabledFastPathSendsNoneMatchToAssistantEvenIfSimilarMatchesAreScoredInJava() {
+        when(statisticUserService.searchUser("Peter", "Weber", "1982-04-08")).thenReturn(NONE_MATCH);
+
+        assertThat(pipeline(false, false).search("session", QUERY)).isEqualTo(ANSWERED);
+
+        assertThat(resolutions("llm")).isEqualTo(1.0);
+        assertThat(resolutions("fast")).isZero();
+    }
+
+    @Test
+    void disabledFastPathStillScoresSimilarMatchesInJava() {
+        when(statisticUserService.searchUser("Peter", "Weber", "1982-04-08")).thenReturn(SIMILAR_MATCHES);
+
+        assertThat(pipeline(false, false).search("session", QUERY)).isEqualTo(SCORED);
+
+        verify(searchAssistant, never()).search(anyString(), any(UserSearchQuery.class));
+        assertThat(resolutions("java")).isEqualTo(1.0);
+    }
+
+    @Test
+    void enabledSimilarMatchLlmSendsSimilarMatchesToAssistant() {
+        when(statisticUserService.searchUser("Peter", "Weber", "1982-04-08")).thenReturn(SIMILAR_MATCHES);
+
+        assertThat(pipeline(true, true).search("session", QUERY)).isEqualTo(ANSWERED);
+
+        assertThat(resolutions("llm")).isEqualTo(1.0);
+        assertThat(resolutions("java")).isZero();
+    }
+
+    private UserSearchPipeline pipeline(boolean fastPathEnabled, boolean similarMatchLlmEnabled) {
+        return new UserSearchPipeline(statisticUserService, searchAssistant, chatMemoryProvider, resultCache,
+                new UserSearchCoalescer(registry), scoringService, fastPathEnabled, similarMatchLlmEnabled, 4, registry);
+    }
+
+    private double resolutions(String path) {
+        return registry.counter("user.search.resolutions", "path", path).count();
+    }
+}
@@ -0,0 +1,108 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.common.PersonChanged;
+import io.crunch.ai.function.statistic.StatisticUser;
+import io.crunch.ai.function.statistic.StatisticUserService;
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.quarkus.test.junit.mockito.InjectMock;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks which cached search results a committed change of a statistic user invalidates, and that a search
+ * resolved across an invalidation is not cached.
+ */
+@QuarkusTest
+@TestProfile(UserSearchTestProfile.class)
+class UserSearchResultCacheTest {
+
+    private static final UserSearchQuery SAME_DATE = new UserSearchQuery("Tomas", "Meier", "1985-03-15");
+
+    private static final UserSearchQuery SAME_YEAR = new UserSearchQuery("Tomas", "Mayer", "1985-11-03");
+
+    private static final UserSearchQuery OTHER_YEAR = new UserSearchQuery("Tomas", "Meier", "1986-03-15");
+
+    private static final UserSearchQuery NO_YEAR = new UserSearchQuery("Tomas", "Meier", "15.03.1985");
+
+    @Inject
+    UserSearchResultCache resultCache;
+
+    @Inject
+    UserSearchPipeline searchPipeline;
+
+    @InjectMock
+    StatisticUserService statisticUserService;
+
+    @BeforeEach
+    void fillCache() {
+        resultCache.invalidateAll();
+        for (var query : new UserSearchQuery[] { SAME_DATE, SAME_YEAR, OTHER_YEAR, NO_YEAR }) {
+            resultCache.put(query, noneMatchOf(query), resultCache.generation());
+        }
+    }
+
+    @Test
+    void insertedStatisticUserInvalidatesResultsOfSameBirthYear() {
+        resultCache.onPersonChanged(new PersonChanged(statisticUser(new Person("Thomas", "Meyer", "1985-07-01")), PersonChanged.Type.CREATED));
+
+        assertThat(resultCache.get(SAME_DATE)).isEmpty();
+        assertThat(resultCache.get(SAME_YEAR)).isEmpty();
+        assertThat(resultCache.get(OTHER_YEAR)).contains(noneMatchOf(OTHER_YEAR));
+        assertThat(resultCache.get(NO_YEAR)).contains(noneMatchOf(NO_YEAR));
+    }
+
+    @Test
+    void deletedStatisticUserWithoutBirthYearInvalidatesResultsOfSameBirthDate() {
+        resultCache.onPersonChanged(new PersonChanged(statisticUser(new Person("Thomas", "Meyer", " 15.03.1985")), PersonChanged.Type.DELETED));
+
+        assertThat(resultCache.get(NO_YEAR)).isEmpty();
+        assertThat(resultCache.get(SAME_DATE)).contains(noneMatchOf(SAME_DATE));
+        assertThat(resultCache.get(SAME_YEAR)).contains(noneMatchOf(SAME_YEAR));
+        assertThat(resultCache.get(OTHER_YEAR)).contains(noneMatchOf(OTHER_YEAR));
+    }
+
+    @Test
+    void resolvedSearchIsCached() {
+        resultCache.invalidateAll();
+        when(statisticUserService.searchUser("Tomas", "Meier", "1985-03-15")).thenReturn(noneMatchOf(SAME_DATE));
+
+        assertThat(searchPipeline.search("session", SAME_DATE)).isEqualTo(noneMatchOf(SAME_DATE));
+
+        assertThat(resultCache.get(SAME_DATE)).contains(noneMatchOf(SAME_DATE));
+    }
+
+    @Test
+    void invalidationDuringResolutionKeepsTheResolvedResultOutOfTheCache() {
+        resultCache.invalidateAll();
+        when(statisticUserService.searchUser("Tomas", "Meier", "1985-03-15")).thenAnswer(invocation -> {
+            // The user is inserted and committed while the search is resolved from the rows read before
+            resultCache.onPersonChanged(new PersonChanged(statisticUser(new Person("Tomas", "Meier", "1985-03-15")), PersonChanged.Type.CREATED));
+            return noneMatchOf(SAME_DATE);
+        });
+
+        assertThat(searchPipeline.search("session", SAME_DATE)).isEqualTo(noneMatchOf(SAME_DATE));
+
+        assertThat(resultCache.get(SAME_DATE)).isEmpty();
+    }
+
+    private static StatisticUser statisticUser(Person person) {
+        var user = new StatisticUser();
+        user.setExternalId("EXT-CACHE");
+        user.setPerson(person);
+        user.setAddress(new Address("Germany", "Dresden", "01069", "Prager Str.", "12"));
+        return user;
+    }
+
+    private static UserSearchResult noneMatchOf(UserSearchQuery query) {
+        return noneMatch(person(query.firstName(), query.lastName(), query.birthDate()));
+    }
+}
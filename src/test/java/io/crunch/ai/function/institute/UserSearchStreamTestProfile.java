@@ -0,0 +1,18 @@
+package io.crunch.ai.function.institute;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+public class UserSearchStreamTestProfile implements QuarkusTestProfile {
+
+    static final int MAX_IN_FLIGHT = 2;
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "quarkus.otel.enabled", "false",
+            "user-search.similar-match.llm-enabled", "true",
+            "user-search.stream.max-in-flight", String.valueOf(MAX_IN_FLIGHT));
+    }
+}
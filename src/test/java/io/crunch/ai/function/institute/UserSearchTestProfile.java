@@ -8,6 +8,8 @@ public class UserSearchTestProfile implements QuarkusTestProfile {
 
     @Override
     public Map<String, String> getConfigOverrides() {
-        return Map.of("quarkus.otel.enabled", "false");
+        return Map.of(
+            "quarkus.otel.enabled", "false",
+            "user-search.similar-match.llm-enabled", "true");
     }
 }
@@ -0,0 +1,31 @@
+package io.crunch.ai.function.institute;
+
+import io.crunch.ai.function.statistic.UserSearchResult;
+import io.smallrye.common.annotation.Blocking;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.jboss.resteasy.reactive.RestResponse;
+
+/**
+ * Serves {@code GET /users} on the worker pool, as it was served before it ran on virtual threads; the baseline of
+ * {@link InstituteUserResourceLoadTest}.
+ */
+@Path("/load-test/worker-pool/users")
+@Produces(MediaType.APPLICATION_JSON)
+public class WorkerPoolUserResource {
+
+    private final InstituteUserResource delegate;
+
+    public WorkerPoolUserResource(InstituteUserResource delegate) {
+        this.delegate = delegate;
+    }
+
+    @GET
+    @Blocking
+    public RestResponse<UserSearchResult> search(@BeanParam UserSearchQuery query) {
+        return delegate.search(query);
+    }
+}
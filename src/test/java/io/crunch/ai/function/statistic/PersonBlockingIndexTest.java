@@ -0,0 +1,54 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.BlockingKey;
+import io.crunch.ai.function.common.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonBlockingIndexTest {
+
+    private final PersonBlockingIndex index = new PersonBlockingIndex(null, true);
+
+    @Test
+    void blocksAlikeSoundingNamesBornInTheSameYear() {
+        index(1, "Thomas", "Meyer", "1985-03-15");
+        index(2, "Tomas", "Mayer", "1985-11-03");
+        index(3, "Thomas", "Meier", "1986-03-15");
+        index(4, "Thomas", "Weber", "1985-03-15");
+
+        assertThat(index.block("Thomas", "Meier", "1985-03-15")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void computesCologneCodesAndBirthYear() {
+        assertThat(BlockingKey.of(new Person(" Thomas ", "Meier", "1985-03-15"))).isEqualTo(new BlockingKey("268", "67", 1985));
+        assertThat(BlockingKey.of(new Person("Jürgen", "Müller", "unknown"))).isEqualTo(new BlockingKey("0746", "657", null));
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index(1, "Thomas", "Meyer", "1985-03-15");
+        index(1, "Thomas", "Meyer", "1990-01-01");
+
+        assertThat(index.block("Thomas", "Meier", "1985-03-15")).isEmpty();
+        assertThat(index.block("Thomas", "Meier", "1990-06-30")).containsExactly(1L);
+
+        index.remove(1);
+
+        assertThat(index.block("Thomas", "Meier", "1990-06-30")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void returnsNothingWhenDisabled() {
+        var disabled = new PersonBlockingIndex(null, false);
+        disabled.index(1, BlockingKey.of(new Person("Thomas", "Meyer", "1985-03-15")));
+
+        assertThat(disabled.block("Thomas", "Meyer", "1985-03-15")).isEmpty();
+    }
+
+    private void index(long id, String firstName, String lastName, String birthDate) {
+        index.index(id, BlockingKey.of(new Person(firstName, lastName, birthDate)));
+    }
+}
@@ -0,0 +1,67 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonTrigramIndexTest {
+
+    private final PersonTrigramIndex index = new PersonTrigramIndex(true, 0.7, 2, new SimpleMeterRegistry());
+
+    @Test
+    void findsNearMissNamesBornOnTheSameDate() {
+        index.index(1, new Person("Thomas", "Meyer", "1985-03-15"));
+        index.index(2, new Person("Tomas", "Meier", "1985-03-15"));
+        index.index(3, new Person("Anna", "Meier", "1985-03-15"));
+        index.index(4, new Person("Thomas", "Meier", "1985-03-16"));
+
+        assertThat(index.search("Thomas", "Meier", "1985-03-15"))
+                .extracting(PersonTrigramIndex.Candidate::id)
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void ignoresCaseAndSurroundingBlanks() {
+        index.index(1, new Person("Thomas", "Meyer", "1985-03-15"));
+
+        assertThat(index.search(" THOMAS ", "meier", " 1985-03-15"))
+                .extracting(PersonTrigramIndex.Candidate::id)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void returnsAtMostMaxCandidatesMostSimilarFirst() {
+        index.index(1, new Person("Thomas", "Maier", "1985-03-15"));
+        index.index(2, new Person("Thomas", "Meier", "1985-03-15"));
+        index.index(3, new Person("Thomas", "Meyer", "1985-03-15"));
+
+        var candidates = index.search("Thomas", "Meier", "1985-03-15");
+
+        assertThat(candidates).extracting(PersonTrigramIndex.Candidate::id).containsExactly(2L, 1L);
+        assertThat(candidates.getFirst().similarity()).isEqualTo(1.0);
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index.index(1, new Person("Thomas", "Meyer", "1985-03-15"));
+        index.index(1, new Person("Thomas", "Meyer", "1990-01-01"));
+
+        assertThat(index.search("Thomas", "Meier", "1985-03-15")).isEmpty();
+        assertThat(index.search("Thomas", "Meier", "1990-01-01")).extracting(PersonTrigramIndex.Candidate::id).containsExactly(1L);
+
+        index.remove(1);
+
+        assertThat(index.search("Thomas", "Meier", "1990-01-01")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void returnsNothingWhenDisabled() {
+        var disabled = new PersonTrigramIndex(false, 0.7, 10, new SimpleMeterRegistry());
+        disabled.index(1, new Person("Thomas", "Meyer", "1985-03-15"));
+
+        assertThat(disabled.search("Thomas", "Meyer", "1985-03-15")).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.BlockingKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks which fuzzy candidates survive the {@code user-search.fuzzy.max-candidates} limit.
+ */
+class StatisticUserFuzzySearchTest {
+
+    private static final int MAX_CANDIDATES = 2;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final PersonTrigramIndex trigramIndex = new PersonTrigramIndex(true, 0.7, MAX_CANDIDATES, registry);
+
+    private final PersonBlockingIndex blockingIndex = new PersonBlockingIndex(null, true);
+
+    private final Map<Long, StatisticUserView> users = new LinkedHashMap<>();
+
+    @Test
+    void ranksBlockLargerThanMaxCandidatesByNameAndBirthDate() {
+        index(1, "Tomaz", "Mayr", "1985-01-01");
+        index(2, "Tomas", "Mayer", "1985-12-31");
+        index(3, "Thomas", "Meier", "1985-09-15");
+        index(4, "Thomas", "Meier", "1985-03-20");
+        index(5, "Tomas", "Meier", "1985-03-15");
+
+        assertThat(blockingIndex.block("Thomas", "Meier", "1985-03-15")).hasSizeGreaterThan(MAX_CANDIDATES);
+        assertThat(service().searchUser("Thomas", "Meier", "1985-03-15")).isEqualTo(similarMatches(List.of(
+                matchUser(person("Tomas", "Meier", "1985-03-15"), null, 0.0, "", ""),
+                matchUser(person("Thomas", "Meier", "1985-03-20"), null, 0.0, "", ""))));
+    }
+
+    @Test
+    void prefersCloserBirthDateAmongEquallySimilarNames() {
+        index(1, "Thomas", "Meyer", "1985-01-01");
+        index(2, "Thomas", "Meyer", "1985-06-01");
+        index(3, "Thomas", "Meyer", "1985-03-01");
+
+        assertThat(service().searchUser("Thomas", "Meier", "1985-03-15")).isEqualTo(similarMatches(List.of(
+                matchUser(person("Thomas", "Meyer", "1985-03-01"), null, 0.0, "", ""),
+                matchUser(person("Thomas", "Meyer", "1985-01-01"), null, 0.0, "", ""))));
+    }
+
+    private void index(long id, String firstName, String lastName, String birthDate) {
+        var person = person(firstName, lastName, birthDate);
+        trigramIndex.index(id, person);
+        blockingIndex.index(id, BlockingKey.of(person));
+        users.put(id, new StatisticUserView(id, "EXT-" + id, person, null));
+    }
+
+    private StatisticUserService service() {
+        var dictionaryIndex = mock(StatisticUserDictionaryIndex.class);
+        when(dictionaryIndex.isEnabled()).thenReturn(true);
+        when(dictionaryIndex.findByIds(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .map(users::get)
+                .toList());
+        return new StatisticUserService(trigramIndex, blockingIndex, dictionaryIndex, mock(StatisticUserSnapshotEngine.class),
+                false, MAX_CANDIDATES, registry);
+    }
+}
@@ -0,0 +1,113 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.institute.UserSearchTestProfile;
+import io.quarkus.logging.Log;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shows that person lookups on large {@code STATISTIC_USER} and {@code INSTITUTE_USER} tables are answered from the
+ * composite indexes.
+ * <p>
+ * Every test fills the table with {@value #ROWS} generated rows inside its own transaction, which is rolled back
+ * afterwards, and compares the plan of the lookup with and without index scans. The execution times are only
+ * logged: they depend on the machine and the database cache, so asserting them would make the test flaky.
+ */
+@QuarkusTest
+@TestProfile(UserSearchTestProfile.class)
+class StatisticUserIndexTest {
+
+    private static final int ROWS = 200_000;
+
+    private static final Pattern EXECUTION_TIME = Pattern.compile("Execution Time: ([0-9.]+) ms");
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    PersonBlockingIndex blockingIndex;
+
+    @Test
+    @TestTransaction
+    void personLookupUsesCompositeIndex() {
+        insertRows();
+
+        var lookup = "select * from statistic_user where first_name = 'First4711' and last_name = 'Last4711' and birth_date = '1990-01-08'";
+        var indexed = explain(lookup);
+        disableIndexScans();
+        var sequential = explain(lookup);
+
+        Log.infof("Person lookup on %d rows: %.3f ms with index, %.3f ms without", ROWS, executionTime(indexed), executionTime(sequential));
+        assertThat(indexed).contains("statistic_user_person_idx").doesNotContain("Seq Scan");
+        assertThat(sequential).contains("Seq Scan");
+    }
+
+    @Test
+    @TestTransaction
+    void institutePersonLookupUsesCompositeIndex() {
+        insertInstituteRows();
+
+        var lookup = "select * from institute_user where first_name = 'First4711' and last_name = 'Last4711' and birth_date = '1990-01-08'";
+        var indexed = explain(lookup);
+        disableIndexScans();
+        var sequential = explain(lookup);
+
+        Log.infof("Institute person lookup on %d rows: %.3f ms with index, %.3f ms without", ROWS, executionTime(indexed), executionTime(sequential));
+        assertThat(indexed).contains("institute_user_person_idx").doesNotContain("Seq Scan");
+        assertThat(sequential).contains("Seq Scan");
+    }
+
+    @Test
+    void importedRowsHaveBackfilledBlockingKeys() {
+        assertThat(StatisticUser.count("blockingKey.firstName is null")).isZero();
+        assertThat(blockingIndex.block("Thomas", "Meier", "1985-01-01")).isNotEmpty();
+    }
+
+    private void insertRows() {
+        entityManager.createNativeQuery("""
+                insert into statistic_user (id, external_id, first_name, last_name, birth_date,
+                                            country, city, zip_code, street, house_number)
+                select nextval('statistic_user_seq'), 'BULK' || g, 'First' || g, 'Last' || g, '1990-01-' || lpad(cast(g % 28 + 1 as text), 2, '0'),
+                       'Germany', 'Berlin', '10117', 'Unter den Linden', cast(g % 100 as text)
+                from generate_series(1, :rows) g
+                """).setParameter("rows", ROWS).executeUpdate();
+        entityManager.createNativeQuery("analyze statistic_user").executeUpdate();
+    }
+
+    private void insertInstituteRows() {
+        entityManager.createNativeQuery("""
+                insert into institute_user (id, first_name, last_name, birth_date, country, city, zip_code, street, house_number)
+                select nextval('institute_user_seq'), 'First' || g, 'Last' || g, '1990-01-' || lpad(cast(g % 28 + 1 as text), 2, '0'),
+                       'Germany', 'Berlin', '10117', 'Unter den Linden', cast(g % 100 as text)
+                from generate_series(1, :rows) g
+                """).setParameter("rows", ROWS).executeUpdate();
+        entityManager.createNativeQuery("analyze institute_user").executeUpdate();
+    }
+
+    private void disableIndexScans() {
+        entityManager.createNativeQuery("set local enable_indexscan = off").executeUpdate();
+        entityManager.createNativeQuery("set local enable_bitmapscan = off").executeUpdate();
+    }
+
+    private String explain(String query) {
+        return ((List<?>) entityManager.createNativeQuery("explain analyze " + query).getResultList()).stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static double executionTime(String plan) {
+        var matcher = EXECUTION_TIME.matcher(plan);
+        assertThat(matcher.find()).as("execution time in plan %s", plan).isTrue();
+        return Double.parseDouble(matcher.group(1));
+    }
+}
@@ -0,0 +1,83 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.institute.UserSearchTestProfile;
+import io.quarkus.logging.Log;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares loading the candidates of a large {@code SIMILARMATCH} as managed entities (the former lookup, including the
+ * flush at commit) with loading them as {@link StatisticUserView} projections, by allocated bytes and latency.
+ */
+@QuarkusTest
+@TestProfile(UserSearchTestProfile.class)
+class StatisticUserProjectionTest {
+
+    private static final int CANDIDATES = 2_000;
+
+    private static final int ITERATIONS = 20;
+
+    private static final String LOOKUP = "person.firstName = ?1 and person.lastName = ?2 and person.birthDate = ?3";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    StatisticUserService statisticUserService;
+
+    @Test
+    @TestTransaction
+    void projectionAllocatesLessThanManagedEntities() {
+        entityManager.createNativeQuery("""
+                insert into statistic_user (id, external_id, first_name, last_name, birth_date,
+                                            country, city, zip_code, street, house_number)
+                select nextval('statistic_user_seq'), 'MANY' || g, 'Many', 'Candidates', '1970-01-01',
+                       'Germany', 'Berlin', '10117', 'Unter den Linden', cast(g as text)
+                from generate_series(1, :candidates) g
+                """).setParameter("candidates", CANDIDATES).executeUpdate();
+
+        var entities = measure(() -> {
+            List<StatisticUser> users = StatisticUser.find(LOOKUP, "Many", "Candidates", "1970-01-01").list();
+            entityManager.flush();
+            return users;
+        });
+        var projections = measure(() -> StatisticUser.find(LOOKUP, "Many", "Candidates", "1970-01-01").project(StatisticUserView.class).list());
+
+        Log.infof("SIMILARMATCH with %d candidates, managed entities: %d bytes, %.2f ms per lookup", CANDIDATES, entities.bytes(), entities.millis());
+        Log.infof("SIMILARMATCH with %d candidates, projections: %d bytes, %.2f ms per lookup", CANDIDATES, projections.bytes(), projections.millis());
+        assertThat(projections.bytes()).isLessThan(entities.bytes());
+        assertThat(statisticUserService.searchUser("Many", "Candidates", "1970-01-01"))
+                .isInstanceOfSatisfying(SimilarMatchesResult.class, result -> assertThat(result.users()).hasSize(CANDIDATES));
+    }
+
+    private Measurement measure(Supplier<List<?>> lookup) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertThat(lookup.get()).hasSize(CANDIDATES);
+            entityManager.clear();
+        }
+        long bytes = 0;
+        long nanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            lookup.get();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            entityManager.clear();
+        }
+        return new Measurement(bytes / ITERATIONS, nanos / ITERATIONS / 1_000_000d);
+    }
+
+    private record Measurement(long bytes, double millis) { }
+}
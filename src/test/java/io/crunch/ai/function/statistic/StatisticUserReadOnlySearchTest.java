@@ -0,0 +1,49 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.crunch.ai.function.institute.UserSearchTestProfile;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import static io.crunch.ai.function.statistic.UserSearchResultUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that a read-only search joining a transaction with unflushed changes sees them, and leaves the session of
+ * the caller as it was.
+ */
+@QuarkusTest
+@TestProfile(UserSearchTestProfile.class)
+class StatisticUserReadOnlySearchTest {
+
+    @Inject
+    Session session;
+
+    @Inject
+    StatisticUserService statisticUserService;
+
+    @Test
+    @TestTransaction
+    void searchSeesUnflushedUserOfJoinedTransaction() {
+        var person = new Person("Rosalind", "Flushwell", "1971-02-03");
+        var address = new Address("Germany", "Kiel", "24103", "Holstenstrasse", "7");
+        var user = new StatisticUser();
+        user.setExternalId("EXT-READ-ONLY");
+        user.setPerson(person);
+        user.setAddress(address);
+        user.persist();
+
+        var result = statisticUserService.searchUser("Rosalind", "Flushwell", "1971-02-03");
+
+        assertThat(result).isEqualTo(exactMatch(matchUser(person, address, 1.0, "", "EXT-READ-ONLY")));
+        assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+        assertThat(session.isDefaultReadOnly()).isFalse();
+        assertThat(session.isReadOnly(user)).isFalse();
+    }
+}
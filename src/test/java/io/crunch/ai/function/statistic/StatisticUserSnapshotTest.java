@@ -0,0 +1,107 @@
+package io.crunch.ai.function.statistic;
+
+import io.crunch.ai.function.common.Address;
+import io.crunch.ai.function.common.Person;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Checks that the memory-mapped snapshot answers lookups exactly like the JPA path, and that it is rebuilt after
+ * changes while lookups keep seeing every committed change.
+ */
+@QuarkusTest
+@TestProfile(StatisticUserSnapshotTestProfile.class)
+class StatisticUserSnapshotTest {
+
+    private static final String LOOKUP = "person.firstName = ?1 and person.lastName = ?2 and person.birthDate = ?3";
+
+    @Inject
+    StatisticUserSnapshotEngine engine;
+
+    @Inject
+    StatisticUserService statisticUserService;
+
+    @Test
+    void snapshotFindsTheSameUsersAsJpa() {
+        var snapshot = await().atMost(Duration.ofSeconds(10)).until(engine::current, current -> current.isPresent()).orElseThrow();
+
+        var users = QuarkusTransaction.requiringNew().call(() -> StatisticUser.findAll().project(StatisticUserView.class).list());
+        assertThat(snapshot.rows()).isEqualTo(users.size());
+        for (var person : users.stream().map(StatisticUserView::person).distinct().toList()) {
+            var expected = QuarkusTransaction.requiringNew().call(() -> byId(
+                    StatisticUser.find(LOOKUP, person.firstName(), person.lastName(), person.birthDate()).project(StatisticUserView.class).list()));
+            assertThat(byId(snapshot.find(person.firstName(), person.lastName(), person.birthDate()))).as("%s", person).isEqualTo(expected);
+        }
+        assertThat(snapshot.find("Thomas", "Meier", "1985-03-15")).isEmpty();
+        assertThat(snapshot.find("clara", "meier", "2000-07-21")).isEmpty();
+        assertThat(byId(snapshot.findByIds(users.stream().map(StatisticUserView::id).toList()))).isEqualTo(byId(users));
+        assertThat(snapshot.findByIds(List.of(-1L))).isEmpty();
+    }
+
+    @Test
+    void committedChangesAreSeenBeforeAndAfterTheRebuild() {
+        await().atMost(Duration.ofSeconds(10)).until(() -> engine.current().isPresent());
+        var person = new Person("Snapshot", "Pending", "1999-09-09");
+        assertThat(statisticUserService.searchUser(person.firstName(), person.lastName(), person.birthDate())).isInstanceOf(NoMatchResult.class);
+
+        var id = QuarkusTransaction.requiringNew().call(() -> {
+            var user = new StatisticUser();
+            user.setExternalId("EXT-SNAPSHOT");
+            user.setPerson(person);
+            user.setAddress(new Address("Germany", "Berlin", "10117", "Unter den Linden", "1"));
+            user.persist();
+            return user.id;
+        });
+        try {
+            assertThat(statisticUserService.searchUser(person.firstName(), person.lastName(), person.birthDate()))
+                    .isInstanceOfSatisfying(ExactMatchResult.class, result -> assertThat(result.user().externalId()).isEqualTo("EXT-SNAPSHOT"));
+
+            var rebuilt = await().atMost(Duration.ofSeconds(10)).until(engine::current, current -> current.isPresent()).orElseThrow();
+            assertThat(engine.pendingChanges()).isZero();
+            assertThat(rebuilt.find(person.firstName(), person.lastName(), person.birthDate()))
+                    .extracting(StatisticUserView::externalId)
+                    .containsExactly("EXT-SNAPSHOT");
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> StatisticUser.deleteById(id));
+        }
+        await().atMost(Duration.ofSeconds(10)).until(() -> engine.current().isPresent());
+        assertThat(statisticUserService.searchUser(person.firstName(), person.lastName(), person.birthDate())).isInstanceOf(NoMatchResult.class);
+    }
+
+    @Test
+    void nullPersonFieldsAreHashedAndComparedAsValues(@TempDir Path directory) throws Exception {
+        var file = directory.resolve("statistic-user.snapshot");
+        var withoutBirthDate = new StatisticUserView(1L, "EXT-NULL-1", new Person("Nina", "Nullmann", null), null);
+        var emptyBirthDate = new StatisticUserView(2L, "EXT-NULL-2", new Person("Nina", "Nullmann", ""), null);
+        var withoutFirstName = new StatisticUserView(3L, "EXT-NULL-3", new Person(null, "Nullmann", "1990-01-01"), null);
+        try (var writer = new StatisticUserSnapshot.Writer(file, System.currentTimeMillis())) {
+            writer.add(withoutBirthDate);
+            writer.add(emptyBirthDate);
+            writer.add(withoutFirstName);
+            writer.finish();
+        }
+
+        var snapshot = StatisticUserSnapshot.open(file);
+
+        assertThat(snapshot.find("Nina", "Nullmann", null)).containsExactly(withoutBirthDate);
+        assertThat(snapshot.find("Nina", "Nullmann", "")).containsExactly(emptyBirthDate);
+        assertThat(snapshot.find(null, "Nullmann", "1990-01-01")).containsExactly(withoutFirstName);
+        assertThat(snapshot.find("Nina", "Nullmann", "1990-01-01")).isEmpty();
+    }
+
+    private static List<StatisticUserView> byId(List<StatisticUserView> users) {
+        return users.stream().sorted(Comparator.comparing(StatisticUserView::id)).toList();
+    }
+}
@@ -0,0 +1,16 @@
+package io.crunch.ai.function.statistic;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+public class StatisticUserSnapshotTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "quarkus.otel.enabled", "false",
+            "user-search.snapshot.enabled", "true",
+            "user-search.snapshot.path", "target/statistic-user.snapshot");
+    }
+}